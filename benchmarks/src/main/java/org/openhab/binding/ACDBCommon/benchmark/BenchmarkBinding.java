@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.benchmark;
+
+import org.openhab.binding.ACDBCommon.internal.ACDBBinding;
+
+/**
+ * <p>
+ * ACDBBinding on embedded H2 databases
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class BenchmarkBinding extends ACDBBinding {
+
+	@Override
+	protected String getBindingName() {
+		return "ACDBBench";
+	}
+
+	@Override
+	protected String getDriverClassName() {
+		return EmbeddedDatabase.DRIVER_CLASS_NAME;
+	}
+
+	/**
+	 * run one refresh cycle on the calling thread
+	 */
+	public void runCycle() {
+		execute();
+	}
+}
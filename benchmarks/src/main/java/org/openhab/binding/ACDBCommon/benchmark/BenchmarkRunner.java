@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>
+ * Runs the benchmarks with the gc profiler, so allocation rates are reported
+ * next to the scores
+ * </p>
+ * <p>
+ * Takes the usual JMH command line, e.g. a benchmark name pattern.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public final class BenchmarkRunner {
+
+	private BenchmarkRunner() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		OptionsBuilder builder = new OptionsBuilder();
+		builder.parent(commandLine);
+		if (commandLine.getIncludes().isEmpty()) {
+			builder.include(BenchmarkRunner.class.getPackage().getName() + ".*Benchmark");
+		}
+		Options options = builder.addProfiler(GCProfiler.class).build();
+		new Runner(options).run();
+	}
+}
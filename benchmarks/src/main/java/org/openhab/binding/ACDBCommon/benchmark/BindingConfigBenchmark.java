@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.core.items.Item;
+import org.openhab.core.library.items.NumberItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * processBindingConfiguration over a whole item file
+ * </p>
+ * <p>
+ * The item file mixes select/update pairs, selects with polling interval and
+ * server, and inserts.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindingConfigBenchmark {
+
+	private static final String CONTEXT = "benchmark.items";
+
+	@Param({ "1000", "10000" })
+	public int items;
+
+	private final List<Item> itemList = new ArrayList<>();
+	private final List<String> configs = new ArrayList<>();
+
+	@Setup
+	public void setUp() {
+		itemList.clear();
+		configs.clear();
+		for (int i = 0; i < items; i++) {
+			String itemName = EmbeddedDatabase.itemName(i);
+			itemList.add(new NumberItem(itemName));
+			configs.add(bindingConfig(itemName, i));
+		}
+	}
+
+	/**
+	 * @param itemName
+	 * @param index
+	 * @return binding configuration of an item
+	 */
+	static String bindingConfig(String itemName, int index) {
+		switch (index % 3) {
+			case 0:
+				return "<[" + EmbeddedDatabase.selectSql(itemName) + "] >[" + EmbeddedDatabase.updateSql(itemName)
+					+ "]";
+			case 1:
+				return "<[5s:server" + (index % 4) + ":" + EmbeddedDatabase.selectSql(itemName) + "]";
+			default:
+				return ">>[" + EmbeddedDatabase.insertSql(itemName) + "]";
+		}
+	}
+
+	@Benchmark
+	public BenchmarkBindingProvider processItemFile() throws Exception {
+		BenchmarkBindingProvider provider = new BenchmarkBindingProvider();
+		for (int i = 0; i < items; i++) {
+			provider.processBindingConfiguration(CONTEXT, itemList.get(i), configs.get(i));
+		}
+		return provider;
+	}
+}
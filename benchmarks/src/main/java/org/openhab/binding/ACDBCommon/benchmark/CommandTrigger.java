@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.h2.api.Trigger;
+
+/**
+ * <p>
+ * Measures the time from a command to the update of its row
+ * </p>
+ * <p>
+ * The harness registers each command with {@link #sent(String, int)}, the
+ * trigger fires inside the update the binding executes and records the
+ * elapsed time.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class CommandTrigger implements Trigger {
+
+	/**
+	 * send time in ns by item name and value
+	 */
+	private static final ConcurrentMap<String, Long> pending = new ConcurrentHashMap<>();
+
+	private static volatile LatencyRecorder recorder = new LatencyRecorder();
+
+	public static void setRecorder(LatencyRecorder recorder) {
+		CommandTrigger.recorder = recorder;
+	}
+
+	/**
+	 * @param itemName
+	 * @param value command value
+	 */
+	public static void sent(String itemName, int value) {
+		pending.put(itemName + "=" + value, System.nanoTime());
+	}
+
+	/**
+	 * @return commands not written yet, e.g. replaced by coalescing
+	 */
+	public static int getPendingCount() {
+		return pending.size();
+	}
+
+	@Override
+	public void init(Connection conn, String schemaName, String triggerName, String tableName, boolean before,
+		int type) {
+	}
+
+	@Override
+	public void fire(Connection conn, Object[] oldRow, Object[] newRow) {
+		if (newRow == null || newRow[1] == null) {
+			return;
+		}
+		Long sent = pending.remove(newRow[0] + "=" + ((BigDecimal) newRow[1]).intValue());
+		if (sent != null) {
+			recorder.record((System.nanoTime() - sent) / 1000);
+		}
+	}
+
+	@Override
+	public void close() {
+	}
+
+	@Override
+	public void remove() {
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.binding.ACDBCommon.db.DBManager;
+import org.openhab.binding.ACDBCommon.db.QueryTemplate;
+import org.openhab.binding.ACDBCommon.db.ServerInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * select, update and insert of DBManager on an embedded database
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DBManagerBenchmark {
+
+	private static final int ITEMS = 1000;
+
+	private EmbeddedDatabase database;
+	private QueryTemplate selectQuery;
+	private QueryTemplate updateQuery;
+	private QueryTemplate insertQuery;
+	private int counter;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		database = new EmbeddedDatabase("dbmanager", ITEMS);
+		ServerInfo server = new ServerInfo(DBManager.DEFAULT_SERVER_ID);
+		server.setUrl(database.getUrl());
+		server.setUser(EmbeddedDatabase.USER);
+		server.setPassword(EmbeddedDatabase.PASSWORD);
+		server.setDriverClassName(EmbeddedDatabase.DRIVER_CLASS_NAME);
+		server.getPool().start();
+		Map<String, ServerInfo> servers = new HashMap<>();
+		servers.put(server.getServerId(), server);
+		DBManager.setServerCache(servers);
+
+		String itemName = EmbeddedDatabase.itemName(ITEMS / 2);
+		selectQuery = QueryTemplate.compile(EmbeddedDatabase.selectSql(itemName));
+		updateQuery = QueryTemplate.compile(EmbeddedDatabase.updateSql(itemName));
+		insertQuery = QueryTemplate.compile(EmbeddedDatabase.insertSql(itemName));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		DBManager.closeConnection();
+		database.close();
+	}
+
+	@Benchmark
+	public String select() throws Exception {
+		return DBManager.select(selectQuery);
+	}
+
+	@Benchmark
+	public void update() throws Exception {
+		DBManager.update(updateQuery, Integer.toString(counter++ & 0xffff), DBManager.ValueType.NUMBER);
+	}
+
+	@Benchmark
+	public void insert() throws Exception {
+		String value = Integer.toString(counter++ & 0xffff);
+		DBManager.insert(insertQuery, "time=" + value + "&value=" + value, DBManager.ValueType.NUMBER);
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * <p>
+ * In-memory H2 database holding one value row per item
+ * </p>
+ * <p>
+ * item_value(name, value) is read and updated by the items, item_history
+ * receives their inserts. The database lives until {@link #close()}.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class EmbeddedDatabase implements AutoCloseable {
+
+	public static final String DRIVER_CLASS_NAME = "org.h2.Driver";
+	public static final String USER = "sa";
+	public static final String PASSWORD = "bench";
+
+	private final String url;
+	/**
+	 * keeps the in-memory database open
+	 */
+	private final Connection connection;
+
+	/**
+	 * @param name database name, unique within the JVM
+	 * @param items number of value rows, named item0 .. item(n-1)
+	 * @throws SQLException
+	 */
+	public EmbeddedDatabase(String name, int items) throws SQLException {
+		this.url = "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1";
+		this.connection = DriverManager.getConnection(url, USER, PASSWORD);
+		try (Statement stmt = connection.createStatement()) {
+			stmt.execute("CREATE TABLE item_value (name VARCHAR(64) PRIMARY KEY, value DECIMAL(12,2))");
+			stmt.execute("CREATE TABLE item_history (id IDENTITY, name VARCHAR(64), value DECIMAL(12,2), "
+				+ "raw VARCHAR(64))");
+		}
+		try (PreparedStatement stmt = connection.prepareStatement("INSERT INTO item_value VALUES (?, ?)")) {
+			for (int i = 0; i < items; i++) {
+				stmt.setString(1, itemName(i));
+				stmt.setInt(2, i);
+				stmt.addBatch();
+			}
+			stmt.executeBatch();
+		}
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	/**
+	 * @param index
+	 * @return name of the item of a value row
+	 */
+	public static String itemName(int index) {
+		return "item" + index;
+	}
+
+	public static String selectSql(String itemName) {
+		return "SELECT value FROM item_value WHERE name = '" + itemName + "'";
+	}
+
+	public static String updateSql(String itemName) {
+		return "UPDATE item_value SET value = ? WHERE name = '" + itemName + "'";
+	}
+
+	public static String insertSql(String itemName) {
+		return "INSERT INTO item_history (name, value, raw) VALUES ('" + itemName + "', ?, ?)";
+	}
+
+	/**
+	 * count the statements executed from now on, see {@link #countStatements()}
+	 *
+	 * @throws SQLException
+	 */
+	public void enableStatistics() throws SQLException {
+		try (Statement stmt = connection.createStatement()) {
+			stmt.execute("SET QUERY_STATISTICS_MAX_ENTRIES 100000");
+			stmt.execute("SET QUERY_STATISTICS TRUE");
+		}
+	}
+
+	/**
+	 * @return number of statements executed since {@link #enableStatistics()}
+	 * @throws SQLException
+	 */
+	public long countStatements() throws SQLException {
+		try (Statement stmt = connection.createStatement()) {
+			try (ResultSet rs = stmt.executeQuery("SELECT SUM(EXECUTION_COUNT) FROM INFORMATION_SCHEMA.QUERY_STATISTICS "
+				+ "WHERE SQL_STATEMENT NOT LIKE '%QUERY_STATISTICS%'")) {
+				rs.next();
+				return rs.getLong(1);
+			}
+		}
+	}
+
+	/**
+	 * call a trigger after each update of item_value
+	 *
+	 * @param triggerClass implementation of org.h2.api.Trigger
+	 * @throws SQLException
+	 */
+	public void addUpdateTrigger(Class<?> triggerClass) throws SQLException {
+		try (Statement stmt = connection.createStatement()) {
+			stmt.execute("CREATE TRIGGER item_value_updated AFTER UPDATE ON item_value FOR EACH ROW CALL \""
+				+ triggerClass.getName() + "\"");
+		}
+	}
+
+	/**
+	 * @return number of rows in item_history
+	 * @throws SQLException
+	 */
+	public long countHistory() throws SQLException {
+		try (Statement stmt = connection.createStatement()) {
+			try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM item_history")) {
+				rs.next();
+				return rs.getLong(1);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws SQLException {
+		try (Statement stmt = connection.createStatement()) {
+			stmt.execute("DROP ALL OBJECTS");
+		} finally {
+			connection.close();
+		}
+	}
+}
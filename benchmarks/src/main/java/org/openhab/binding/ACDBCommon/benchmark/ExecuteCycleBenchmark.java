@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.benchmark;
+
+import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openhab.core.items.Item;
+import org.openhab.core.library.items.NumberItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * One full refresh cycle of ACDBBinding polling N items
+ * </p>
+ * <p>
+ * Items are polled every ms, so all of them are due in every cycle as long
+ * as a cycle takes longer than that.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecuteCycleBenchmark {
+
+	private static final String CONTEXT = "benchmark.items";
+
+	@Param({ "1000", "10000" })
+	public int items;
+
+	private EmbeddedDatabase database;
+	private BenchmarkBinding binding;
+	private final AtomicLong updates = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		database = new EmbeddedDatabase("cycle" + items, items);
+
+		BenchmarkBindingProvider provider = new BenchmarkBindingProvider();
+		Map<String, Item> itemMap = new HashMap<>();
+		for (int i = 0; i < items; i++) {
+			String itemName = EmbeddedDatabase.itemName(i);
+			Item item = new NumberItem(itemName);
+			itemMap.put(itemName, item);
+			provider.processBindingConfiguration(CONTEXT, item, "<[" + EmbeddedDatabase.selectSql(itemName) + "]");
+		}
+
+		binding = new BenchmarkBinding();
+		binding.setItemRegistry(Stubs.itemRegistry(itemMap));
+		binding.setEventPublisher(Stubs.eventPublisher(updates, null));
+		binding.addBindingProvider(provider);
+
+		Dictionary<String, Object> config = new Hashtable<>();
+		config.put("url", database.getUrl());
+		config.put("user", EmbeddedDatabase.USER);
+		config.put("password", EmbeddedDatabase.PASSWORD);
+		config.put("refresh", "1");
+		config.put("tick", "1");
+		config.put("commandLanes", "0");
+		binding.updated(config);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		binding.deactivate();
+		database.close();
+	}
+
+	@Benchmark
+	public long cycle() {
+		binding.runCycle();
+		return binding.getLastCycleDuration();
+	}
+}
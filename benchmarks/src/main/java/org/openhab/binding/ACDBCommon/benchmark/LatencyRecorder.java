@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Collects durations and reports their percentiles
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class LatencyRecorder {
+
+	private long[] values = new long[1024];
+	private int count;
+
+	/**
+	 * @param value duration in µs
+	 */
+	public synchronized void record(long value) {
+		if (count == values.length) {
+			values = Arrays.copyOf(values, count * 2);
+		}
+		values[count++] = value;
+	}
+
+	public synchronized int getCount() {
+		return count;
+	}
+
+	/**
+	 * @return "n=.. p50=.. p90=.. p99=.. max=.." in ms
+	 */
+	public synchronized String summary() {
+		if (count == 0) {
+			return "n=0";
+		}
+		long[] sorted = Arrays.copyOf(values, count);
+		Arrays.sort(sorted);
+		return String.format("n=%d p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms", count, percentile(sorted, 50),
+			percentile(sorted, 90), percentile(sorted, 99), sorted[count - 1] / 1000.0);
+	}
+
+	private static double percentile(long[] sorted, double percentile) {
+		int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(0, index)] / 1000.0;
+	}
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openhab.core.items.Item;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+
+/**
+ * <p>
+ * Soak test of the real ACDBBinding on several embedded databases
+ * </p>
+ * <p>
+ * Generates items spread over the servers, each bound to a select and an
+ * update of its row, runs refresh cycles and fires commands at a fixed rate.
+ * Reports cycle time and command latency percentiles, statements per second
+ * and heap usage.
+ * </p>
+ * <p>
+ * Arguments are key=value pairs. items, servers, duration (s), commandRate
+ * (commands/s) and seed belong to the harness, every other key is passed to
+ * updated() of the binding, e.g. parallelism=4 or commandLanes=8.
+ * </p>
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar org.openhab.binding.ACDBCommon.benchmark.LoadHarness items=10000 servers=4
+ * </pre>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public final class LoadHarness {
+
+	private static final String CONTEXT = "harness.items";
+
+	private int items = 10000;
+	private int servers = 4;
+	private long duration = 60;
+	private int commandRate = 200;
+	private long seed = 42;
+	private final Map<String, String> bindingConfig = new LinkedHashMap<>();
+
+	private final List<EmbeddedDatabase> databases = new ArrayList<>();
+	private final LatencyRecorder cycles = new LatencyRecorder();
+	private final LatencyRecorder commands = new LatencyRecorder();
+	private final AtomicLong updates = new AtomicLong();
+	private final AtomicLong commandsSent = new AtomicLong();
+	private long peakHeap;
+
+	private LoadHarness(String[] args) {
+		bindingConfig.put("refresh", "1000");
+		bindingConfig.put("tick", "1000");
+		for (String arg : args) {
+			int eq = arg.indexOf('=');
+			if (eq < 0) {
+				throw new IllegalArgumentException("argument '" + arg + "' must be given as key=value");
+			}
+			String key = arg.substring(0, eq);
+			String value = arg.substring(eq + 1);
+			if ("items".equals(key)) {
+				items = Integer.parseInt(value);
+			} else if ("servers".equals(key)) {
+				servers = Integer.parseInt(value);
+			} else if ("duration".equals(key)) {
+				duration = Long.parseLong(value);
+			} else if ("commandRate".equals(key)) {
+				commandRate = Integer.parseInt(value);
+			} else if ("seed".equals(key)) {
+				seed = Long.parseLong(value);
+			} else {
+				bindingConfig.put(key, value);
+			}
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		new LoadHarness(args).run();
+	}
+
+	private static String serverId(int index) {
+		return "server" + index;
+	}
+
+	private void run() throws Exception {
+		System.out.println("items=" + items + " servers=" + servers + " duration=" + duration + "s commandRate="
+			+ commandRate + "/s binding=" + bindingConfig);
+
+		// databases and the updated() dictionary of the binding
+		Dictionary<String, Object> config = new Hashtable<>();
+		for (int i = 0; i < servers; i++) {
+			EmbeddedDatabase database = new EmbeddedDatabase("harness" + i, items);
+			database.addUpdateTrigger(CommandTrigger.class);
+			databases.add(database);
+			config.put(serverId(i) + ".url", database.getUrl());
+			config.put(serverId(i) + ".user", EmbeddedDatabase.USER);
+			config.put(serverId(i) + ".password", EmbeddedDatabase.PASSWORD);
+		}
+		for (Map.Entry<String, String> entry : bindingConfig.entrySet()) {
+			config.put(entry.getKey(), entry.getValue());
+		}
+
+		// items, item i lives on server i % servers
+		BenchmarkBindingProvider provider = new BenchmarkBindingProvider();
+		Map<String, Item> itemMap = new HashMap<>();
+		for (int i = 0; i < items; i++) {
+			String itemName = EmbeddedDatabase.itemName(i);
+			String serverId = serverId(i % servers);
+			Item item = new NumberItem(itemName);
+			itemMap.put(itemName, item);
+			provider.processBindingConfiguration(CONTEXT, item, "<[" + serverId + ":"
+				+ EmbeddedDatabase.selectSql(itemName) + "] >[" + serverId + ":" + EmbeddedDatabase.updateSql(itemName)
+				+ "]");
+		}
+
+		final BenchmarkBinding binding = new BenchmarkBinding();
+		binding.setItemRegistry(Stubs.itemRegistry(itemMap));
+		binding.setEventPublisher(Stubs.eventPublisher(updates, null));
+		binding.addBindingProvider(provider);
+		binding.updated(config);
+		CommandTrigger.setRecorder(commands);
+		for (EmbeddedDatabase database : databases) {
+			database.enableStatistics();
+		}
+
+		// commands at a fixed rate on random items
+		ScheduledExecutorService commander = Executors.newSingleThreadScheduledExecutor();
+		if (commandRate > 0) {
+			final Random random = new Random(seed);
+			final AtomicInteger value = new AtomicInteger(items);
+			commander.scheduleAtFixedRate(new Runnable() {
+				@Override
+				public void run() {
+					String itemName = EmbeddedDatabase.itemName(random.nextInt(items));
+					int commandValue = value.incrementAndGet();
+					CommandTrigger.sent(itemName, commandValue);
+					binding.receiveCommand(itemName, new DecimalType(commandValue));
+					commandsSent.incrementAndGet();
+				}
+			}, 0, TimeUnit.SECONDS.toNanos(1) / commandRate, TimeUnit.NANOSECONDS);
+		}
+
+		// refresh cycles, paced like the refresh thread of an active binding
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		long tick = Long.parseLong(bindingConfig.get("tick"));
+		long start = System.nanoTime();
+		long end = start + TimeUnit.SECONDS.toNanos(duration);
+		long nextReport = start + TimeUnit.SECONDS.toNanos(10);
+		while (System.nanoTime() < end) {
+			long cycleStart = System.nanoTime();
+			binding.runCycle();
+			long cycleTime = System.nanoTime() - cycleStart;
+			cycles.record(cycleTime / 1000);
+			peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+			if (cycleStart >= nextReport) {
+				report("progress", cycleStart - start);
+				nextReport += TimeUnit.SECONDS.toNanos(10);
+			}
+			long sleep = TimeUnit.MILLISECONDS.toNanos(tick) - cycleTime;
+			if (sleep > 0) {
+				TimeUnit.NANOSECONDS.sleep(sleep);
+			}
+		}
+		commander.shutdown();
+		commander.awaitTermination(10, TimeUnit.SECONDS);
+		long elapsed = System.nanoTime() - start;
+
+		binding.deactivate();
+		report("result", elapsed);
+		System.gc();
+		System.out.println("heap: peak=" + (peakHeap >> 20) + "MB after gc="
+			+ (memory.getHeapMemoryUsage().getUsed() >> 20) + "MB");
+		for (EmbeddedDatabase database : databases) {
+			database.close();
+		}
+	}
+
+	private void report(String label, long elapsedNanos) throws Exception {
+		long statements = 0;
+		for (EmbeddedDatabase database : databases) {
+			statements += database.countStatements();
+		}
+		double seconds = elapsedNanos / 1e9;
+		System.out.println(String.format("%s after %.0fs: cycles %s", label, seconds, cycles.summary()));
+		System.out.println(String.format("%s after %.0fs: commands sent=%d written %s not written=%d", label,
+			seconds, commandsSent.get(), commands.summary(), CommandTrigger.getPendingCount()));
+		System.out.println(String.format("%s after %.0fs: statements=%d (%.0f/s) updates posted=%d", label,
+			seconds, statements, statements / seconds, updates.get()));
+	}
+}
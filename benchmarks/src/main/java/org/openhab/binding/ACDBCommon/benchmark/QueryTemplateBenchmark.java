@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.binding.ACDBCommon.db.QueryTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * Parsing of [serverId:]SQL binding strings
+ * </p>
+ * <p>
+ * QueryTemplate.compile replaced DBManager.sqlParse, it splits off the
+ * serverId and finds the parameter slots.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryTemplateBenchmark {
+
+	@Param({ "plain", "server", "quoted" })
+	public String kind;
+
+	private String sql;
+
+	@Setup
+	public void setUp() {
+		if ("plain".equals(kind)) {
+			sql = EmbeddedDatabase.updateSql("item42");
+		} else if ("server".equals(kind)) {
+			sql = "server1:" + EmbeddedDatabase.updateSql("item42");
+		} else {
+			sql = "server1:UPDATE item_value SET value = ?, note = 'a:b?c' WHERE name = 'item42' AND value <> ?";
+		}
+	}
+
+	@Benchmark
+	public QueryTemplate compile() {
+		return QueryTemplate.compile(sql);
+	}
+}
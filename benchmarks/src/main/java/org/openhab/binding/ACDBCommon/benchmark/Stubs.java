@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openhab.core.events.EventPublisher;
+import org.openhab.core.items.Item;
+import org.openhab.core.items.ItemNotFoundException;
+import org.openhab.core.items.ItemRegistry;
+
+/**
+ * <p>
+ * ItemRegistry and EventPublisher without the openHAB runtime
+ * </p>
+ * <p>
+ * Implemented as proxies, only the methods the binding calls do something.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public final class Stubs {
+
+	private Stubs() {
+	}
+
+	/**
+	 * @param items items by name
+	 * @return registry returning the given items
+	 */
+	public static ItemRegistry itemRegistry(final Map<String, Item> items) {
+		return (ItemRegistry) Proxy.newProxyInstance(ItemRegistry.class.getClassLoader(),
+			new Class<?>[] { ItemRegistry.class }, new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					String name = method.getName();
+					if ("getItem".equals(name) || "getItemByPattern".equals(name)) {
+						Item item = items.get(args[0]);
+						if (item == null) {
+							throw new ItemNotFoundException((String) args[0]);
+						}
+						return item;
+					} else if ("getItems".equals(name)) {
+						return items.values();
+					} else if ("isValidItemName".equals(name)) {
+						return Boolean.TRUE;
+					}
+					return defaultValue(proxy, method, args);
+				}
+			});
+	}
+
+	/**
+	 * @param updates counts posted updates
+	 * @param listener called for each posted update, may be null
+	 * @return publisher counting the posted updates
+	 */
+	public static EventPublisher eventPublisher(final AtomicLong updates, final UpdateListener listener) {
+		return (EventPublisher) Proxy.newProxyInstance(EventPublisher.class.getClassLoader(),
+			new Class<?>[] { EventPublisher.class }, new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					if ("postUpdate".equals(method.getName())) {
+						updates.incrementAndGet();
+						if (listener != null) {
+							listener.updated((String) args[0], args[1]);
+						}
+						return null;
+					}
+					return defaultValue(proxy, method, args);
+				}
+			});
+	}
+
+	private static Object defaultValue(Object proxy, Method method, Object[] args) {
+		if ("hashCode".equals(method.getName())) {
+			return System.identityHashCode(proxy);
+		} else if ("equals".equals(method.getName())) {
+			return proxy == args[0];
+		} else if ("toString".equals(method.getName())) {
+			return "stub " + method.getDeclaringClass().getSimpleName();
+		} else if (method.getReturnType() == boolean.class) {
+			return Boolean.FALSE;
+		}
+		return null;
+	}
+
+	/**
+	 * receiver of the updates the binding posts
+	 */
+	public interface UpdateListener {
+		void updated(String itemName, Object state);
+	}
+}
@@ -9,6 +9,7 @@
 
 package org.openhab.binding.ACDBCommon;
 
+import org.openhab.binding.ACDBCommon.db.QueryTemplate;
 import org.openhab.core.binding.BindingProvider;
 
 /**
@@ -43,4 +44,76 @@ public interface ACDBBindingProvider extends BindingProvider {
 	 * @return SQL
 	 */
 	String getInsertSql(String itemName);
+
+	/**
+	 * get compiled SQL for update
+	 *
+	 * @param itemName
+	 * @return query, null if not configured
+	 */
+	QueryTemplate getUpdateQuery(String itemName);
+
+	/**
+	 * get compiled SQL for select
+	 *
+	 * @param itemName
+	 * @return query, null if not configured
+	 */
+	QueryTemplate getSelectQuery(String itemName);
+
+	/**
+	 * get compiled SQL for insert
+	 *
+	 * @param itemName
+	 * @return query, null if not configured
+	 */
+	QueryTemplate getInsertQuery(String itemName);
+
+	/**
+	 * get polling interval configured for the item
+	 *
+	 * @param itemName
+	 * @return interval in ms, 0 for the refresh interval of the binding
+	 */
+	long getPollInterval(String itemName);
+
+	/**
+	 * get time selected values of the item may be reused for state updates
+	 *
+	 * @param itemName
+	 * @return TTL in ms, 0 for the TTL of the binding
+	 */
+	long getCacheTtl(String itemName);
+
+	/**
+	 * get key of the item in the rows of its table scan
+	 *
+	 * @param itemName
+	 * @return key, null if not configured
+	 */
+	String getScanKey(String itemName);
+
+	/**
+	 * get compiled SQL of the table scan returning (item_key, value) rows
+	 *
+	 * @param itemName
+	 * @return query, null if not configured
+	 */
+	QueryTemplate getScanQuery(String itemName);
+
+	/**
+	 * get server whose change-log updates the item
+	 *
+	 * @param itemName
+	 * @return serverId, null if not configured
+	 */
+	String getChangeLogServerId(String itemName);
+
+	/**
+	 * get key of the item in the change-log
+	 *
+	 * @param itemName
+	 * @return key, null if not configured
+	 */
+	String getChangeLogKey(String itemName);
 }
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openhab.binding.ACDBCommon.internal.ACDBBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Change-log table of one DB server
+ * </p>
+ * <p>
+ * The SQL returns (sequence, item_key, value) rows with a sequence greater
+ * than its single parameter, ordered by sequence. Only rows after the highest
+ * sequence seen so far are read.
+ * </p>
+ * <p>
+ * The first poll starts after the sequence returned by the start SQL instead
+ * of replaying the whole table. Unless configured, the start SQL is derived
+ * from the change-log SQL as SELECT MAX(sequence column) FROM its table. Items
+ * get their value at startup from their own select, the change-log only
+ * delivers later changes.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class ChangeLog {
+
+	/**
+	 * logger
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(ACDBBinding.class);
+
+	/**
+	 * first column and first table of the change-log SQL
+	 */
+	private static final Pattern SEQUENCE_PATTERN = Pattern.compile(
+		"^\\s*SELECT\\s+([\\w.\"`\\[\\]]+)\\s*,.*?\\bFROM\\s+([\\w.\"`\\[\\]]+)", Pattern.CASE_INSENSITIVE
+			| Pattern.DOTALL);
+
+	private final ServerInfo server;
+
+	private String sql;
+
+	private String startSql;
+
+	/**
+	 * set once the high-water mark is seeded
+	 */
+	private boolean started;
+
+	/**
+	 * highest sequence applied
+	 */
+	private volatile long highWaterMark;
+
+	public ChangeLog(ServerInfo server) {
+		this.server = server;
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	public void setSql(String sql) {
+		this.sql = sql;
+	}
+
+	/**
+	 * @return SQL returning the sequence to start after, null if none is configured or derived
+	 */
+	public String getStartSql() {
+		if (StringUtils.isNotBlank(startSql)) {
+			return startSql;
+		}
+		if (sql == null) {
+			return null;
+		}
+		Matcher matcher = SEQUENCE_PATTERN.matcher(sql);
+		if (!matcher.find()) {
+			return null;
+		}
+		return "SELECT MAX(" + matcher.group(1) + ") FROM " + matcher.group(2);
+	}
+
+	public void setStartSql(String startSql) {
+		this.startSql = startSql;
+	}
+
+	public boolean isEnabled() {
+		return StringUtils.isNotBlank(sql);
+	}
+
+	public long getHighWaterMark() {
+		return highWaterMark;
+	}
+
+	/**
+	 * read the rows added since the last poll
+	 *
+	 * @param fetchSize rows fetched per round-trip
+	 * @param handler called for each row in sequence order
+	 * @param timeLimit upper bound in ms of the query timeout, 0 for the configured timeout
+	 * @return number of rows
+	 * @throws Exception
+	 */
+	public synchronized int poll(int fetchSize, DBManager.RowHandler handler, long timeLimit) throws Exception {
+		int rows = 0;
+		long timeout = QueryTimeout.of(server, null, timeLimit);
+		try (PooledConnection conn = server.getConnection()) {
+			if (!started) {
+				highWaterMark = start(conn, timeout);
+				started = true;
+			}
+			long mark = highWaterMark;
+			PreparedStatement stmt = conn.prepareStatement(sql);
+			stmt.setLong(1, mark);
+			stmt.setFetchSize(fetchSize);
+			QueryTimeout.Watch watch = QueryTimeout.start(stmt, timeout);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					long sequence = rs.getLong(1);
+					handler.handle(rs.getString(2), rs.getString(3));
+					if (sequence > mark) {
+						mark = sequence;
+						highWaterMark = mark;
+					}
+					rows++;
+				}
+			} finally {
+				QueryTimeout.stop(watch);
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * @param conn
+	 * @param timeout time limit in ms, 0 for none
+	 * @return sequence the first poll starts after
+	 * @throws SQLException
+	 */
+	private long start(PooledConnection conn, long timeout) throws SQLException {
+		String start = getStartSql();
+		if (start == null) {
+			logger.warn("no start SQL for the change-log of " + server.getServerId()
+				+ ", the first poll replays the whole change-log");
+			return 0;
+		}
+		PreparedStatement stmt = conn.prepareStatement(start);
+		QueryTimeout.Watch watch = QueryTimeout.start(stmt, timeout);
+		try (ResultSet rs = stmt.executeQuery()) {
+			// MAX of an empty table is NULL, read as 0
+			long mark = rs.next() ? rs.getLong(1) : 0;
+			logger.debug("change-log of {} starts after {}", server.getServerId(), mark);
+			return mark;
+		} finally {
+			QueryTimeout.stop(watch);
+		}
+	}
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.ACDBCommon.db;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openhab.binding.ACDBCommon.internal.ACDBBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Circuit breaker of the connections of one DB server
+ * </p>
+ * <p>
+ * After failureThreshold failed connection attempts in a row the breaker opens
+ * and connection requests fail at once instead of waiting for the driver to
+ * time out. After openDuration a single request is let through as a probe
+ * (half-open). Success closes the breaker, failure opens it again for twice
+ * the previous time, up to maxOpenDuration.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class CircuitBreaker {
+	/**
+	 * logger
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(ACDBBinding.class);
+
+	public enum State {
+		/**
+		 * requests pass
+		 */
+		CLOSED,
+		/**
+		 * requests fail at once
+		 */
+		OPEN,
+		/**
+		 * one probe request is running, others fail at once
+		 */
+		HALF_OPEN
+	}
+
+	private final String serverId;
+
+	private int failureThreshold = 3;
+	private long openDuration = TimeUnit.SECONDS.toMillis(5);
+	private long maxOpenDuration = TimeUnit.MINUTES.toMillis(5);
+
+	private volatile State state = State.CLOSED;
+	private volatile int failures;
+	private long backoff;
+	private long retryAt;
+	private final AtomicLong trips = new AtomicLong();
+
+	public CircuitBreaker(String serverId) {
+		this.serverId = serverId;
+	}
+
+	/**
+	 * check whether a connection may be requested
+	 *
+	 * @return true if the request is the probe of a half-open breaker
+	 * @throws SQLException breaker is open
+	 */
+	boolean acquire() throws SQLException {
+		if (state == State.CLOSED) {
+			return false;
+		}
+		synchronized (this) {
+			if (state == State.CLOSED) {
+				return false;
+			}
+			if (state == State.OPEN && System.currentTimeMillis() >= retryAt) {
+				// this request is the probe
+				state = State.HALF_OPEN;
+				logger.debug("probing DB server {}", serverId);
+				return true;
+			}
+		}
+		throw new SQLTransientConnectionException("DB server " + serverId + " is unavailable, circuit is open");
+	}
+
+	/**
+	 * a connection was obtained
+	 */
+	void recordSuccess() {
+		if (state == State.CLOSED && failures == 0) {
+			return;
+		}
+		synchronized (this) {
+			failures = 0;
+			if (state != State.CLOSED) {
+				state = State.CLOSED;
+				backoff = 0;
+				logger.info("DB server " + serverId + " is available again, circuit closed");
+			}
+		}
+	}
+
+	/**
+	 * a connection could not be obtained
+	 */
+	synchronized void recordFailure() {
+		if (state == State.HALF_OPEN) {
+			open(Math.min(backoff * 2, maxOpenDuration));
+		} else if (state == State.CLOSED && ++failures >= failureThreshold) {
+			open(openDuration);
+		}
+	}
+
+	/**
+	 * the probe ended without trying to connect, e.g. the pool was exhausted,
+	 * the next request probes again
+	 */
+	synchronized void releaseProbe() {
+		if (state == State.HALF_OPEN) {
+			state = State.OPEN;
+			retryAt = System.currentTimeMillis();
+		}
+	}
+
+	private void open(long duration) {
+		backoff = Math.max(1, duration);
+		retryAt = System.currentTimeMillis() + backoff;
+		state = State.OPEN;
+		trips.incrementAndGet();
+		logger.warn("DB server " + serverId + " is unavailable, circuit opened for " + backoff + "ms");
+	}
+
+	/**
+	 * @return true if requests currently fail at once
+	 */
+	public boolean isOpen() {
+		State current = state;
+		if (current == State.CLOSED) {
+			return false;
+		}
+		synchronized (this) {
+			return state == State.HALF_OPEN || state == State.OPEN && System.currentTimeMillis() < retryAt;
+		}
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * @return number of times the breaker opened
+	 */
+	public long getTrips() {
+		return trips.get();
+	}
+
+	public int getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	public void setFailureThreshold(int failureThreshold) {
+		this.failureThreshold = Math.max(1, failureThreshold);
+	}
+
+	public long getOpenDuration() {
+		return openDuration;
+	}
+
+	/**
+	 * @param openDuration time in ms until the first probe
+	 */
+	public void setOpenDuration(long openDuration) {
+		this.openDuration = openDuration;
+	}
+
+	public long getMaxOpenDuration() {
+		return maxOpenDuration;
+	}
+
+	/**
+	 * @param maxOpenDuration upper bound in ms of the time between probes
+	 */
+	public void setMaxOpenDuration(long maxOpenDuration) {
+		this.maxOpenDuration = maxOpenDuration;
+	}
+}
@@ -0,0 +1,459 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openhab.binding.ACDBCommon.internal.ACDBBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Bounded connection pool of one DB server
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class ConnectionPool {
+	/**
+	 * logger
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(ACDBBinding.class);
+
+	/**
+	 * connections used within this window are handed out without validation
+	 */
+	private static final long VALIDATION_BYPASS_MILLIS = 500;
+
+	/**
+	 * interval of idle eviction and refill to the minimum size
+	 */
+	private static final long HOUSEKEEPING_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+	/**
+	 * housekeeping thread shared by all pools
+	 */
+	private static final ScheduledExecutorService housekeeper = Executors
+		.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "ACDB pool housekeeper");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+	private final ServerInfo server;
+
+	private int minSize = 1;
+	private int maxSize = 4;
+	private long validationTimeout = TimeUnit.SECONDS.toMillis(5);
+	private long idleTimeout = TimeUnit.MINUTES.toMillis(10);
+	private long maxLifetime = TimeUnit.MINUTES.toMillis(30);
+	private long borrowTimeout = TimeUnit.SECONDS.toMillis(30);
+	private int statementCacheSize = 64;
+
+	private final AtomicLong statementCacheHits = new AtomicLong();
+	private final AtomicLong statementCacheMisses = new AtomicLong();
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition available = lock.newCondition();
+	/**
+	 * idle connections, most recently used first
+	 */
+	private final Deque<PooledConnection> idle = new ArrayDeque<>();
+	/**
+	 * idle, borrowed and currently opening connections
+	 */
+	private int total;
+	private boolean closed;
+	private ScheduledFuture<?> housekeeping;
+	/**
+	 * set once connections are wanted, housekeeping keeps minSize connections open from then on
+	 */
+	private volatile boolean warm;
+
+	public ConnectionPool(ServerInfo server) {
+		this.server = server;
+	}
+
+	public int getMinSize() {
+		return minSize;
+	}
+
+	public void setMinSize(int minSize) {
+		this.minSize = minSize;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public long getValidationTimeout() {
+		return validationTimeout;
+	}
+
+	public void setValidationTimeout(long validationTimeout) {
+		this.validationTimeout = validationTimeout;
+	}
+
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	public void setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	public long getMaxLifetime() {
+		return maxLifetime;
+	}
+
+	public void setMaxLifetime(long maxLifetime) {
+		this.maxLifetime = maxLifetime;
+	}
+
+	public long getBorrowTimeout() {
+		return borrowTimeout;
+	}
+
+	public void setBorrowTimeout(long borrowTimeout) {
+		this.borrowTimeout = borrowTimeout;
+	}
+
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	/**
+	 * @return number of statements served from the statement cache
+	 */
+	public long getStatementCacheHits() {
+		return statementCacheHits.get();
+	}
+
+	/**
+	 * @return number of statements prepared on a cache miss
+	 */
+	public long getStatementCacheMisses() {
+		return statementCacheMisses.get();
+	}
+
+	void countStatementCacheHit() {
+		statementCacheHits.incrementAndGet();
+	}
+
+	void countStatementCacheMiss() {
+		statementCacheMisses.incrementAndGet();
+	}
+
+	/**
+	 * open the minimum number of connections and start housekeeping
+	 */
+	public void start() {
+		start(true);
+	}
+
+	/**
+	 * start housekeeping
+	 *
+	 * @param warmUp true to open the minimum number of connections now, false
+	 *            to open connections on first use
+	 */
+	public void start(boolean warmUp) {
+		warm = warmUp;
+		lock.lock();
+		try {
+			if (housekeeping != null || closed) {
+				return;
+			}
+			housekeeping = housekeeper.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					housekeep();
+				}
+			}, HOUSEKEEPING_INTERVAL_MILLIS, HOUSEKEEPING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+		} finally {
+			lock.unlock();
+		}
+		if (warmUp) {
+			fill();
+		}
+	}
+
+	/**
+	 * borrow a connection, waiting up to borrowTimeout when the pool is exhausted
+	 *
+	 * @return connection to be closed by the caller
+	 * @throws SQLException
+	 */
+	public PooledConnection borrow() throws SQLException {
+		if (!warm) {
+			warm = true;
+		}
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(borrowTimeout);
+		while (true) {
+			PooledConnection conn = null;
+			lock.lock();
+			try {
+				while (conn == null) {
+					if (closed) {
+						throw new SQLException("connection pool is closed: " + server.getServerId());
+					}
+					conn = idle.pollFirst();
+					if (conn != null) {
+						break;
+					}
+					if (total < maxSize) {
+						total++;
+						break;
+					}
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0) {
+						throw new SQLException("timeout waiting for connection: " + server.getServerId());
+					}
+					available.awaitNanos(remaining);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SQLException("interrupted waiting for connection: " + server.getServerId(), e);
+			} finally {
+				lock.unlock();
+			}
+
+			if (conn == null) {
+				return create();
+			}
+			if (isUsable(conn, System.currentTimeMillis())) {
+				return conn;
+			}
+			// expired or broken, replaced by the next round
+			server.getMetrics().countReconnect();
+			discard(conn);
+		}
+	}
+
+	/**
+	 * give a borrowed connection back
+	 *
+	 * @param conn
+	 */
+	void release(PooledConnection conn) {
+		conn.closeTransientStatements();
+		boolean keep;
+		try {
+			keep = !conn.getConnection().isClosed();
+		} catch (SQLException e) {
+			keep = false;
+		}
+		if (!keep) {
+			server.getMetrics().countReconnect();
+		}
+		long now = System.currentTimeMillis();
+		if (keep && now - conn.getCreatedAt() < maxLifetime) {
+			lock.lock();
+			try {
+				if (!closed) {
+					conn.setLastUsed(now);
+					idle.addFirst(conn);
+					available.signal();
+					return;
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+		discard(conn);
+	}
+
+	/**
+	 * close all idle connections, borrowed ones are closed on release
+	 */
+	public void close() {
+		List<PooledConnection> toClose;
+		lock.lock();
+		try {
+			closed = true;
+			if (housekeeping != null) {
+				housekeeping.cancel(false);
+				housekeeping = null;
+			}
+			toClose = new ArrayList<>(idle);
+			idle.clear();
+			available.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		for (PooledConnection conn : toClose) {
+			discard(conn);
+		}
+	}
+
+	/**
+	 * @return number of open connections
+	 */
+	public int getTotal() {
+		lock.lock();
+		try {
+			return total;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return number of idle connections
+	 */
+	public int getIdle() {
+		lock.lock();
+		try {
+			return idle.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * open a connection, a failure counts for the circuit breaker
+	 *
+	 * @return
+	 * @throws SQLException
+	 */
+	private PooledConnection create() throws SQLException {
+		try {
+			return new PooledConnection(this, server.openConnection());
+		} catch (Exception e) {
+			server.getCircuitBreaker().recordFailure();
+			lock.lock();
+			try {
+				total--;
+				available.signal();
+			} finally {
+				lock.unlock();
+			}
+			if (e instanceof SQLException) {
+				throw (SQLException) e;
+			}
+			throw new SQLException("failed to connect DB: " + server.getServerId(), e);
+		}
+	}
+
+	private boolean isUsable(PooledConnection conn, long now) {
+		if (now - conn.getCreatedAt() >= maxLifetime) {
+			return false;
+		}
+		if (now - conn.getLastUsed() < VALIDATION_BYPASS_MILLIS) {
+			return true;
+		}
+		try {
+			int seconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(validationTimeout));
+			return conn.getConnection().isValid(seconds);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	private void discard(PooledConnection conn) {
+		try {
+			conn.closePhysical();
+		} catch (SQLException e) {
+			logger.debug("failed to close DB connection: {}", server.getServerId());
+		}
+		lock.lock();
+		try {
+			total--;
+			available.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * open connections until minSize is reached
+	 */
+	private void fill() {
+		while (true) {
+			lock.lock();
+			try {
+				if (closed || total >= minSize || server.getCircuitBreaker().isOpen()) {
+					return;
+				}
+				total++;
+			} finally {
+				lock.unlock();
+			}
+			try {
+				release(create());
+			} catch (SQLException e) {
+				logger.warn("failed to open pooled connection: " + server.getServerId(), e);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * evict idle and expired connections, then refill
+	 */
+	private void housekeep() {
+		List<PooledConnection> evicted = new ArrayList<>();
+		long now = System.currentTimeMillis();
+		lock.lock();
+		try {
+			int kept = total;
+			Iterator<PooledConnection> it = idle.descendingIterator();
+			while (it.hasNext()) {
+				PooledConnection conn = it.next();
+				boolean expired = now - conn.getCreatedAt() >= maxLifetime;
+				boolean idleTooLong = now - conn.getLastUsed() >= idleTimeout && kept > minSize;
+				if (expired || idleTooLong) {
+					it.remove();
+					evicted.add(conn);
+					kept--;
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+		for (PooledConnection conn : evicted) {
+			discard(conn);
+		}
+		if (!evicted.isEmpty()) {
+			logger.debug("evicted {} connections of {}", evicted.size(), server.getServerId());
+		}
+		logger.debug("statement cache of {}: hits={}, misses={}", server.getServerId(),
+			statementCacheHits.get(), statementCacheMisses.get());
+		if (warm) {
+			fill();
+		}
+	}
+}
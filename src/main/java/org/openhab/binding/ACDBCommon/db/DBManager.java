@@ -12,12 +12,18 @@ package org.openhab.binding.ACDBCommon.db;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.commons.lang3.StringUtils;
 import org.openhab.binding.ACDBCommon.internal.ACDBBinding;
@@ -37,26 +43,191 @@ public class DBManager {
 	 */
 	private static final Logger logger = LoggerFactory.getLogger(ACDBBinding.class);
 
+	/**
+	 * id of the server configured without serverId prefix
+	 */
+	public static final String DEFAULT_SERVER_ID = "DefultServer";
+
 	/**
 	 * DBserver
 	 */
-	public static Map<String, ServerInfo> serverCache = new HashMap<String, ServerInfo>();
+	public static volatile Map<String, ServerInfo> serverCache = new HashMap<String, ServerInfo>();
+
+	/**
+	 * changed whenever serverCache is replaced
+	 */
+	private static volatile int serverGeneration;
+
+	/**
+	 * threads running blocking JDBC work
+	 */
+	private static volatile ExecutionStrategy executionStrategy = new PlatformExecutionStrategy();
+
+	/**
+	 * writers of coalesced updates, null writes on the timer thread
+	 */
+	private static volatile ExecutorService flushExecutor;
+
+	/**
+	 * number of coalesced updates written at the same time
+	 */
+	private static final int FLUSH_THREADS = 2;
+
+	/**
+	 * JDBC drivers already loaded
+	 */
+	private static final Set<String> loadedDrivers = Collections
+		.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/**
+	 * told about executed updates and inserts, one per binding
+	 */
+	private static final Set<WriteListener> writeListeners = new CopyOnWriteArraySet<>();
+
+	/**
+	 * replace the configured servers, servers of the previous map not taken
+	 * over by the new one are closed afterwards
+	 *
+	 * @param servers completely built map, not to be modified afterwards
+	 */
+	public static synchronized void setServerCache(Map<String, ServerInfo> servers) {
+		Map<String, ServerInfo> previous = serverCache;
+		serverCache = servers;
+		serverGeneration++;
+		// a replaced server has the MBean name of its replacement, unregister it first
+		for (ServerInfo server : previous.values()) {
+			if (servers.get(server.getServerId()) != server) {
+				close(server);
+			}
+		}
+		for (ServerInfo server : servers.values()) {
+			if (previous.get(server.getServerId()) != server) {
+				MBeans.register(server.getMetricsName(), server.getMetrics());
+			}
+		}
+	}
+
+	/**
+	 * @param serverId
+	 * @return configured server, null if unknown
+	 */
+	public static ServerInfo getServer(String serverId) {
+		return serverCache.get(serverId);
+	}
+
+	/**
+	 * load a JDBC driver class, only the first call per class does the work
+	 *
+	 * @param driverClassName
+	 * @throws ClassNotFoundException
+	 */
+	public static void loadDriver(String driverClassName) throws ClassNotFoundException {
+		if (!loadedDrivers.contains(driverClassName)) {
+			Class.forName(driverClassName);
+			loadedDrivers.add(driverClassName);
+		}
+	}
+
+	/**
+	 * add a listener told about executed updates and inserts, added only once
+	 *
+	 * @param listener
+	 */
+	public static void addWriteListener(WriteListener listener) {
+		writeListeners.add(listener);
+	}
+
+	/**
+	 * remove a listener added by {@link #addWriteListener(WriteListener)}
+	 *
+	 * @param listener
+	 */
+	public static void removeWriteListener(WriteListener listener) {
+		writeListeners.remove(listener);
+	}
+
+	/**
+	 * tell the listeners a write was executed, queued writes only when they are flushed
+	 *
+	 * @param server
+	 * @param sql
+	 */
+	static void fireWritten(ServerInfo server, String sql) {
+		for (WriteListener listener : writeListeners) {
+			try {
+				listener.written(server, sql);
+			} catch (RuntimeException e) {
+				logger.error("write listener failed", e);
+			}
+		}
+	}
+
+	static int getServerGeneration() {
+		return serverGeneration;
+	}
+
+	public static ExecutionStrategy getExecutionStrategy() {
+		return executionStrategy;
+	}
+
+	/**
+	 * replace the threads running blocking JDBC work
+	 *
+	 * @param strategy
+	 */
+	public static synchronized void setExecutionStrategy(ExecutionStrategy strategy) {
+		executionStrategy = strategy;
+		ExecutorService previous = flushExecutor;
+		flushExecutor = strategy.newExecutor("ACDB update writer", FLUSH_THREADS);
+		if (previous != null) {
+			previous.shutdown();
+		}
+	}
+
+	/**
+	 * run a write of coalesced updates on the flush executor
+	 *
+	 * @param task
+	 */
+	static void executeFlush(Runnable task) {
+		ExecutorService executor = flushExecutor;
+		if (executor != null) {
+			try {
+				executor.execute(task);
+				return;
+			} catch (RejectedExecutionException e) {
+				// replaced meanwhile
+			}
+		}
+		task.run();
+	}
 
 	/**
 	 * close DB connection
 	 *
 	 * @throws Exception
 	 */
-	public static void closeConnection() throws Exception {
-		for (Map.Entry<String, ServerInfo> mapI : DBManager.serverCache.entrySet()) {
-			ServerInfo serverI = mapI.getValue();
-			if (serverI.getConnection() != null && !serverI.getConnection().isClosed()) {
-				serverI.getConnection().close();
-			}
-			serverI.setConnection(null);
+	public static synchronized void closeConnection() throws Exception {
+		Map<String, ServerInfo> previous = serverCache;
+		serverCache = new HashMap<String, ServerInfo>();
+		serverGeneration++;
+		for (ServerInfo server : previous.values()) {
+			close(server);
 		}
 	}
 
+	/**
+	 * write pending updates and inserts of a server and close its connections
+	 *
+	 * @param server
+	 */
+	private static void close(ServerInfo server) {
+		server.getCoalescer().flushAll();
+		server.getWriteBehind().close();
+		server.getPool().close();
+		MBeans.unregister(server.getMetricsName());
+	}
+
 	/**
 	 * select data
 	 *
@@ -65,28 +236,130 @@ public class DBManager {
 	 * @throws Exception
 	 */
 	public static String select(String selectSql) throws Exception {
-		SqlResult sqlResult = sqlParse(selectSql);
-		String sql = sqlResult.getSql();
-		ServerInfo server = sqlResult.getServer();
-
-		try (PreparedStatement stmt = server.getConnection().prepareStatement(sql)) {
-			ResultSet rs = stmt.executeQuery();
-			ResultSetMetaData metaData = rs.getMetaData();
-			int colCount = metaData.getColumnCount();
-			if (rs.next()) {
-				if (colCount == 1) {
-					return rs.getString(1);
-				} else {
-					List<String> result = new ArrayList<>();
-					for (int i = 1; i <= colCount; i++) {
-						String colName = metaData.getColumnName(i);
-						result.add(colName + "=" + rs.getString(colName));
-					}
-					return StringUtils.join(result, "&");
+		return select(QueryTemplate.compile(selectSql));
+	}
+
+	/**
+	 * select data
+	 *
+	 * @param query
+	 * @return
+	 * @throws Exception
+	 */
+	public static String select(QueryTemplate query) throws Exception {
+		return select(query, STRING_READER);
+	}
+
+	/**
+	 * select data, converting the first row with the given reader
+	 *
+	 * @param query
+	 * @param reader
+	 * @return result of the reader, null if no row was found
+	 * @throws Exception
+	 */
+	public static <T> T select(QueryTemplate query, ResultReader<T> reader) throws Exception {
+		return select(query, reader, 0);
+	}
+
+	/**
+	 * select data, converting the first row with the given reader
+	 *
+	 * @param query
+	 * @param reader
+	 * @param timeLimit upper bound in ms of the query timeout, 0 for the configured timeout
+	 * @return result of the reader, null if no row was found
+	 * @throws Exception
+	 */
+	public static <T> T select(QueryTemplate query, ResultReader<T> reader, long timeLimit) throws Exception {
+		ServerInfo server = resolveServer(query);
+
+		long start = System.nanoTime();
+		try (PooledConnection conn = server.getConnection()) {
+			PreparedStatement stmt = conn.prepareStatement(query.getSql());
+			QueryTimeout.Watch watch = QueryTimeout.start(stmt, QueryTimeout.of(server, query, timeLimit));
+			T result;
+			try (ResultSet rs = stmt.executeQuery()) {
+				result = rs.next() ? reader.read(rs) : null;
+			} finally {
+				QueryTimeout.stop(watch);
+			}
+			server.getMetrics().select().recordSince(start);
+			return result;
+		} catch (Exception e) {
+			server.getMetrics().select().recordError();
+			throw e;
+		}
+	}
+
+	/**
+	 * read the current row as string, a single column as is, several columns as col=value&amp;...
+	 *
+	 * @param rs
+	 * @return
+	 * @throws SQLException
+	 */
+	public static String readString(ResultSet rs) throws SQLException {
+		ResultSetMetaData metaData = rs.getMetaData();
+		int colCount = metaData.getColumnCount();
+		if (colCount == 1) {
+			return rs.getString(1);
+		} else {
+			List<String> result = new ArrayList<>();
+			for (int i = 1; i <= colCount; i++) {
+				String colName = metaData.getColumnName(i);
+				result.add(colName + "=" + rs.getString(colName));
+			}
+			return StringUtils.join(result, "&");
+		}
+	}
+
+	/**
+	 * stream the (key, value) rows of a table scan
+	 *
+	 * @param query SQL returning key and value in the first two columns
+	 * @param fetchSize rows fetched per round-trip
+	 * @param handler called for each row
+	 * @return number of rows
+	 * @throws Exception
+	 */
+	public static int scan(QueryTemplate query, int fetchSize, RowHandler handler) throws Exception {
+		return scan(query, fetchSize, handler, 0);
+	}
+
+	/**
+	 * stream the (key, value) rows of a table scan
+	 *
+	 * @param query SQL returning key and value in the first two columns
+	 * @param fetchSize rows fetched per round-trip
+	 * @param handler called for each row
+	 * @param timeLimit upper bound in ms of the query timeout, 0 for the configured timeout
+	 * @return number of rows
+	 * @throws Exception
+	 */
+	public static int scan(QueryTemplate query, int fetchSize, RowHandler handler, long timeLimit)
+		throws Exception {
+		ServerInfo server = resolveServer(query);
+
+		long start = System.nanoTime();
+		try (PooledConnection conn = server.getConnection()) {
+			PreparedStatement stmt = conn.prepareStatement(query.getSql());
+			stmt.setFetchSize(fetchSize);
+			int rows = 0;
+			QueryTimeout.Watch watch = QueryTimeout.start(stmt, QueryTimeout.of(server, query, timeLimit));
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					handler.handle(rs.getString(1), rs.getString(2));
+					rows++;
 				}
-			} else {
-				return null;
+			} finally {
+				QueryTimeout.stop(watch);
 			}
+			server.getMetrics().select().recordSince(start);
+			return rows;
+		} catch (Exception e) {
+			server.getMetrics().select().recordError();
+			throw e;
 		}
 	}
 
@@ -98,27 +371,79 @@ public class DBManager {
 	 * @throws Exception
 	 */
 	public static void update(String updateSql, String dateValue) throws Exception {
-		SqlResult sqlResult = sqlParse(updateSql);
-		String sql = sqlResult.getSql();
-		ServerInfo server = sqlResult.getServer();
-
-		Pattern STATE_CONFIG_PATTERN = Pattern.compile("(.*?)\\=(.*?)\\&(.*?)\\=(.*?)");
-		Matcher matcher = STATE_CONFIG_PATTERN.matcher(dateValue);
-
-		if (matcher.find()) {
-			String[] values = StringUtils.split(dateValue, "&");
-			HashMap<String, String> sqlParam = new HashMap<>();
-			for (String subValue : values ) {
-				sqlParam.put(StringUtils.substringBefore(subValue, "="), StringUtils.substringAfter(subValue, "="));
-			}
-			update(server, sql, sqlParam);
+		update(QueryTemplate.compile(updateSql), dateValue);
+	}
+
+	/**
+	 * update
+	 *
+	 * @param query
+	 * @param dateValue
+	 * @throws Exception
+	 */
+	public static void update(QueryTemplate query, String dateValue) throws Exception {
+		update(query, dateValue, ValueType.STRING);
+	}
 
+	/**
+	 * update
+	 *
+	 * @param query
+	 * @param dateValue
+	 * @param type how the value is bound
+	 * @throws Exception
+	 */
+	public static void update(QueryTemplate query, String dateValue, ValueType type) throws Exception {
+		ServerInfo server = resolveServer(query);
+
+		PendingWrite write;
+		if (isParameterList(dateValue)) {
+			write = update(query, parseParameters(dateValue), type);
 		} else {
-			try (PreparedStatement stmt = server.getConnection().prepareStatement(sql)) {
-				logger.debug("DB update with:{} ", dateValue);
-				stmt.setString(1, dateValue);
-				stmt.executeUpdate();
-			}
+			write = new PendingWrite(query.getSql(), type, dateValue);
+		}
+		if (server.getCoalescer().isEnabled()) {
+			server.getCoalescer().put(query, write);
+		} else {
+			write(server, query, write);
+		}
+	}
+
+	/**
+	 * write an update held back for coalescing
+	 *
+	 * @param query update query, null is ignored
+	 * @return true if a pending update was written
+	 */
+	public static boolean flushUpdate(QueryTemplate query) {
+		if (query == null) {
+			return false;
+		}
+		ServerInfo server = query.getServer();
+		return server != null && server.getCoalescer().flush(query);
+	}
+
+	/**
+	 * execute update
+	 *
+	 * @param server
+	 * @param query
+	 * @param write
+	 * @throws Exception
+	 */
+	static void write(ServerInfo server, QueryTemplate query, PendingWrite write) throws Exception {
+		logger.debug("DB update with:{} ", write);
+
+		long start = System.nanoTime();
+		try (PooledConnection conn = server.getConnection()) {
+			write.execute(conn, QueryTimeout.of(server, query, 0));
+			server.getMetrics().update().recordSince(start);
+		} catch (Exception e) {
+			server.getMetrics().update().recordError();
+			throw e;
+		} finally {
+			// also after a failure, a timed out statement may still have been applied
+			fireWritten(server, query.getSql());
 		}
 	}
 
@@ -130,137 +455,205 @@ public class DBManager {
 	 * @throws Exception
 	 */
 	public static void insert(String insertSql, String dateValue) throws Exception {
-		SqlResult sqlResult = sqlParse(insertSql);
-		String sql = sqlResult.getSql();
-		ServerInfo server = sqlResult.getServer();
-
-		Pattern STATE_CONFIG_PATTERN = Pattern.compile("(.*?)\\=(.*?)\\&(.*?)\\=(.*?)");
-		Matcher matcher = STATE_CONFIG_PATTERN.matcher(dateValue);
-
-		if (matcher.find()) {
-			String[] values = StringUtils.split(dateValue, "&");
-			HashMap<String, String> sqlParam = new HashMap<>();
-			for (String subValue : values) {
-				sqlParam.put(StringUtils.substringBefore(subValue, "="), StringUtils.substringAfter(subValue, "="));
-			}
-			insert(server, sql, sqlParam);
-
-		} else {
-			try (PreparedStatement stmt = server.getConnection().prepareStatement(sql)) {
-				stmt.setString(1, dateValue);
-				stmt.executeUpdate();
-			}
-		}
+		insert(QueryTemplate.compile(insertSql), dateValue);
 	}
 
 	/**
-	 * execute update
+	 * insert data
 	 *
-	 * @param updateSql
-	 * @param sqlParam
+	 * @param query
+	 * @param dateValue
 	 * @throws Exception
 	 */
-	private static void update(ServerInfo server, String updateSql, HashMap<String, String> sqlParam) throws Exception {
-		Pattern sqlPattern = Pattern.compile("(\\?)");
+	public static void insert(QueryTemplate query, String dateValue) throws Exception {
+		insert(query, dateValue, ValueType.STRING);
+	}
 
-		// analyze SQL statement
-		Matcher matcher = sqlPattern.matcher(updateSql);
-		StringBuffer newSql = new StringBuffer();
+	/**
+	 * insert data
+	 *
+	 * @param query
+	 * @param dateValue
+	 * @param type how the value is bound
+	 * @throws Exception
+	 */
+	public static void insert(QueryTemplate query, String dateValue, ValueType type) throws Exception {
+		ServerInfo server = resolveServer(query);
 
-		while (matcher.find()) {
-			String columnName = matcher.group(0);
-			if (StringUtils.isNotEmpty(columnName)) {
-				matcher.appendReplacement(newSql, sqlParam.get("value"));
-			}
+		PendingWrite write;
+		if (isParameterList(dateValue)) {
+			write = insert(query, parseParameters(dateValue), type);
+		} else {
+			write = new PendingWrite(query.getSql(), type, dateValue);
 		}
-		matcher.appendTail(newSql);
-		logger.debug("### sql:{}", newSql);
-
-		try (PreparedStatement stmt = server.getConnection().prepareStatement(newSql.toString())) {
-			stmt.executeUpdate();
+		if (server.getWriteBehind().isEnabled() && server.getWriteBehind().offer(write)) {
+			return;
+		}
+		long start = System.nanoTime();
+		try (PooledConnection conn = server.getConnection()) {
+			write.execute(conn, QueryTimeout.of(server, query, 0));
+			server.getMetrics().insert().recordSince(start);
+		} catch (Exception e) {
+			server.getMetrics().insert().recordError();
+			throw e;
+		} finally {
+			fireWritten(server, query.getSql());
 		}
 	}
 
-        /**
-         * execute insert 
-         *
-         * @param insertSql
-         * @param sqlParam
-         * @throws Exception
-         */
-        private static void insert(ServerInfo server, String insertSql, HashMap<String, String> sqlParam) throws Exception {
-		Pattern sqlPattern = Pattern.compile("(\\?)");
-		Matcher matcher = sqlPattern.matcher(insertSql);
-		StringBuffer newSql = new StringBuffer();
-
-		if(matcher.find()) {
-			matcher.appendReplacement(newSql, sqlParam.get("value"));
-		}
+	/**
+	 * build update, every parameter is bound to the value
+	 *
+	 * @param query
+	 * @param sqlParam
+	 * @param type
+	 * @return update to execute
+	 */
+	static PendingWrite update(QueryTemplate query, Map<String, String> sqlParam, ValueType type) {
+		String[] values = new String[query.getSlotCount()];
+		Arrays.fill(values, sqlParam.get("value"));
+		return new PendingWrite(query.getSql(), type, values);
+	}
 
-		if(matcher.find()) {
-			matcher.appendReplacement(newSql, "'" + sqlParam.get("time") + "'");
+	/**
+	 * build insert, the first parameter is bound to the value and the second to the time
+	 *
+	 * @param query
+	 * @param sqlParam
+	 * @param type how the value is bound, the time is bound as text
+	 * @return insert to execute
+	 */
+	static PendingWrite insert(QueryTemplate query, Map<String, String> sqlParam, ValueType type) {
+		String[] values = new String[query.getSlotCount()];
+		ValueType[] types = new ValueType[values.length];
+		Arrays.fill(types, ValueType.STRING);
+		if (values.length > 0) {
+			values[0] = sqlParam.get("value");
+			types[0] = type;
 		}
-		matcher.appendTail(newSql);
-		logger.debug("### sql:{}", newSql);
-
-                try (PreparedStatement stmt = server.getConnection().prepareStatement(newSql.toString())) {
-                        stmt.executeUpdate();
+		if (values.length > 1) {
+			values[1] = sqlParam.get("time");
 		}
-        }
+		PendingWrite write = new PendingWrite(query.getSql(), types, values);
+		logger.debug("### sql:{}", write);
+		return write;
+	}
 
 	/**
-	 * parse SQL
+	 * resolve the server of a query
 	 *
-	 * @param allSql
-	 * @return result SQL statemant and DB to connect
-	 */
-	private static SqlResult sqlParse(String allSql) {
-		Pattern SQL_PATTERN = Pattern.compile("^([^\'\"]+?)(\\:)(.*)");
-		Matcher matcher = SQL_PATTERN.matcher(allSql);
-		ServerInfo server = serverCache.get("DefultServer");
-		String sql = "";
-		if (matcher.matches()) {
-			server = serverCache.get(matcher.group(1));
-			if (server == null) {
-				logger.error("no SQL server found.[{}]", allSql );
-			}
-			sql = matcher.group(3);
-		} else {
-			sql = allSql;
+	 * @param query
+	 * @return server
+	 * @throws SQLException no server configured
+	 */
+	private static ServerInfo resolveServer(QueryTemplate query) throws SQLException {
+		if (query == null) {
+			throw new SQLException("no SQL given");
 		}
-		SqlResult result = new SqlResult(sql, server);
-		return result;
+		ServerInfo server = query.getServer();
+		if (server == null) {
+			throw new SQLException("no SQL server found.[" + query + "]");
+		}
+		return server;
 	}
 
 	/**
-	 * SQLの接続サーバと実行するSQLを分析結果用クラス
+	 * check for the name=value&amp;name=value format of a command value
 	 *
+	 * @param dateValue
+	 * @return true if dateValue is a parameter list
 	 */
-	static class SqlResult {
-		// 実行するSQL
-		private String sql;
-		// 接続サーバ情報
-		private ServerInfo server;
+	static boolean isParameterList(String dateValue) {
+		int eq = dateValue.indexOf('=');
+		int amp = eq < 0 ? -1 : dateValue.indexOf('&', eq + 1);
+		return amp >= 0 && dateValue.indexOf('=', amp + 1) >= 0;
+	}
 
-		public SqlResult(String sql, ServerInfo server) {
-			this.sql = sql;
-			this.server = server;
+	/**
+	 * split a name=value&amp;name=value command value
+	 *
+	 * @param dateValue
+	 * @return parameters by name
+	 */
+	static Map<String, String> parseParameters(String dateValue) {
+		Map<String, String> sqlParam = new HashMap<>();
+		int start = 0;
+		while (start <= dateValue.length()) {
+			int end = dateValue.indexOf('&', start);
+			if (end < 0) {
+				end = dateValue.length();
+			}
+			if (end > start) {
+				int eq = dateValue.indexOf('=', start);
+				if (eq < 0 || eq > end) {
+					sqlParam.put(dateValue.substring(start, end), "");
+				} else {
+					sqlParam.put(dateValue.substring(start, eq), dateValue.substring(eq + 1, end));
+				}
+			}
+			start = end + 1;
 		}
+		return sqlParam;
+	}
 
-		public String getSql() {
-			return sql;
-		}
+	/**
+	 * converter of the row a select returns
+	 */
+	public interface ResultReader<T> {
+		/**
+		 * @param rs result set positioned on the row
+		 * @return
+		 * @throws SQLException
+		 */
+		T read(ResultSet rs) throws SQLException;
+	}
 
-		public void setSql(String sql) {
-			this.sql = sql;
+	private static final ResultReader<String> STRING_READER = new ResultReader<String>() {
+		@Override
+		public String read(ResultSet rs) throws SQLException {
+			return readString(rs);
 		}
+	};
 
-		public ServerInfo getServer() {
-			return server;
-		}
+	/**
+	 * how the values of an update or insert are bound
+	 */
+	public enum ValueType {
+		/**
+		 * setString, the value is written as given
+		 */
+		STRING,
+		/**
+		 * setBigDecimal, setString if the value is no number
+		 */
+		NUMBER,
+		/**
+		 * setTimestamp, setString if the value is no timestamp
+		 */
+		TIMESTAMP
+	}
 
-		public void setServer(ServerInfo server) {
-			this.server = server;
-		}
+	/**
+	 * receiver of executed writes
+	 */
+	public interface WriteListener {
+		/**
+		 * called after an update or insert was executed, queued ones when they are flushed
+		 *
+		 * @param server
+		 * @param sql
+		 */
+		void written(ServerInfo server, String sql);
+	}
+
+	/**
+	 * receiver of the rows of a table scan
+	 */
+	public interface RowHandler {
+		/**
+		 * @param key first column
+		 * @param value second column
+		 */
+		void handle(String key, String value);
 	}
 }
@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * <p>
+ * Decides which threads run blocking JDBC work
+ * </p>
+ * <p>
+ * Used for the refresh workers, the command lanes and the writers of
+ * coalesced updates and asynchronous inserts.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public interface ExecutionStrategy {
+
+	/**
+	 * @return name used in the configuration
+	 */
+	String getName();
+
+	/**
+	 * create an executor for one kind of work
+	 *
+	 * @param name prefix of the thread names
+	 * @param threads number of tasks expected to run at the same time
+	 * @return
+	 */
+	ExecutorService newExecutor(String name, int threads);
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Latency histogram with fixed log-linear buckets
+ * </p>
+ * <p>
+ * Values are kept in µs. By default each power of two is split into 16
+ * linear buckets, so percentiles are accurate to about 6%. Recording only
+ * updates atomic counters and does not allocate.
+ * </p>
+ * <p>
+ * Histograms kept per item use {@link #coarse()}, 2 buckets per power of two
+ * up to about 70 minutes, which takes 64 counters instead of 960.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class LatencyHistogram {
+
+	private final int subBucketBits;
+	private final AtomicLongArray buckets;
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+	private final AtomicLong errors = new AtomicLong();
+
+	/**
+	 * histogram accurate to about 6% over the whole range of long
+	 */
+	public LatencyHistogram() {
+		this(4, 63);
+	}
+
+	/**
+	 * @param subBucketBits each power of two is split into 2^subBucketBits buckets
+	 * @param rangeBits values from 2^rangeBits µs on share the last bucket
+	 */
+	public LatencyHistogram(int subBucketBits, int rangeBits) {
+		this.subBucketBits = subBucketBits;
+		this.buckets = new AtomicLongArray((rangeBits - subBucketBits + 1) << subBucketBits);
+	}
+
+	/**
+	 * @return histogram accurate to about 40% up to 2^32 µs
+	 */
+	public static LatencyHistogram coarse() {
+		return new LatencyHistogram(1, 32);
+	}
+
+	/**
+	 * @param startNanos System.nanoTime() at the start of the operation
+	 */
+	public void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * @param nanos duration in ns
+	 */
+	public void record(long nanos) {
+		long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+		buckets.incrementAndGet(Math.min(index(micros, subBucketBits), buckets.length() - 1));
+		count.incrementAndGet();
+		sum.addAndGet(micros);
+		long current = max.get();
+		while (micros > current && !max.compareAndSet(current, micros)) {
+			current = max.get();
+		}
+	}
+
+	/**
+	 * count a failed operation
+	 */
+	public void recordError() {
+		errors.incrementAndGet();
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getErrors() {
+		return errors.get();
+	}
+
+	/**
+	 * @return largest value in µs
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * @param percentile 0..100
+	 * @return upper bound of the bucket holding the percentile in µs
+	 */
+	public long getPercentile(double percentile) {
+		long total = count.get();
+		if (total == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+		long seen = 0;
+		for (int i = 0; i < buckets.length(); i++) {
+			seen += buckets.get(i);
+			if (seen >= target) {
+				return Math.min(lowerBound(i + 1, subBucketBits) - 1, max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * @return current values
+	 */
+	public LatencySnapshot snapshot() {
+		long n = count.get();
+		return new LatencySnapshot(n, errors.get(), n > 0 ? sum.get() / n : 0, getPercentile(50),
+			getPercentile(90), getPercentile(99), max.get());
+	}
+
+	static int index(long micros, int subBucketBits) {
+		int subBuckets = 1 << subBucketBits;
+		if (micros < subBuckets) {
+			return (int) micros;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(micros) - subBucketBits;
+		return (shift + 1) * subBuckets + (int) ((micros >>> shift) & (subBuckets - 1));
+	}
+
+	static long lowerBound(int index, int subBucketBits) {
+		int subBuckets = 1 << subBucketBits;
+		if (index < subBuckets) {
+			return index;
+		}
+		int shift = index / subBuckets - 1;
+		return (long) (subBuckets + index % subBuckets) << shift;
+	}
+}
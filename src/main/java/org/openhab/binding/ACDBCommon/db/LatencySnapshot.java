@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * <p>
+ * Values of a {@link LatencyHistogram} at one point in time, durations in µs
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class LatencySnapshot {
+
+	private final long count;
+	private final long errors;
+	private final long mean;
+	private final long p50;
+	private final long p90;
+	private final long p99;
+	private final long max;
+
+	@ConstructorProperties({ "count", "errors", "mean", "p50", "p90", "p99", "max" })
+	public LatencySnapshot(long count, long errors, long mean, long p50, long p90, long p99, long max) {
+		this.count = count;
+		this.errors = errors;
+		this.mean = mean;
+		this.p50 = p50;
+		this.p90 = p90;
+		this.p99 = p99;
+		this.max = max;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public long getMean() {
+		return mean;
+	}
+
+	public long getP50() {
+		return p50;
+	}
+
+	public long getP90() {
+		return p90;
+	}
+
+	public long getP99() {
+		return p99;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	@Override
+	public String toString() {
+		return "n=" + count + " errors=" + errors + " mean=" + mean + "us p50=" + p50 + "us p90=" + p90 + "us p99="
+			+ p99 + "us max=" + max + "us";
+	}
+}
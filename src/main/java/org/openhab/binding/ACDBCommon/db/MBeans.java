@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.openhab.binding.ACDBCommon.internal.ACDBBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Registration of the metrics MBeans in the platform MBean server
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public final class MBeans {
+	/**
+	 * logger
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(ACDBBinding.class);
+
+	public static final String DOMAIN = "org.openhab.binding.ACDBCommon";
+
+	private MBeans() {
+	}
+
+	/**
+	 * @param type
+	 * @param name
+	 * @return DOMAIN:type=type,name=name
+	 */
+	public static String objectName(String type, String name) {
+		return DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name);
+	}
+
+	/**
+	 * register an MBean, replacing one of the same name
+	 *
+	 * @param objectName
+	 * @param mbean
+	 */
+	public static void register(String objectName, Object mbean) {
+		try {
+			MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(objectName);
+			if (mbeanServer.isRegistered(name)) {
+				mbeanServer.unregisterMBean(name);
+			}
+			mbeanServer.registerMBean(mbean, name);
+		} catch (JMException e) {
+			logger.warn("failed to register MBean " + objectName, e);
+		}
+	}
+
+	/**
+	 * @param objectName
+	 */
+	public static void unregister(String objectName) {
+		try {
+			MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(objectName);
+			if (mbeanServer.isRegistered(name)) {
+				mbeanServer.unregisterMBean(name);
+			}
+		} catch (JMException e) {
+			logger.debug("failed to unregister MBean {}", objectName);
+		}
+	}
+}
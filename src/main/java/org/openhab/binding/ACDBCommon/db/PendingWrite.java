@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * Write statement with its parameter values, ready to be executed or batched
+ * </p>
+ * <p>
+ * Each value is bound by the type of its slot: numbers with setBigDecimal,
+ * timestamps with setTimestamp and everything else with setString, so text
+ * like "007" is written unchanged.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+class PendingWrite {
+	/**
+	 * yyyy-MM-dd[ T]HH:mm:ss[.fffffffff]
+	 */
+	private static final Pattern TIMESTAMP_PATTERN = Pattern
+		.compile("\\d{4}-\\d{2}-\\d{2}[ T]\\d{2}:\\d{2}:\\d{2}(\\.\\d{1,9})?");
+
+	/**
+	 * SQL to execute
+	 */
+	final String sql;
+	/**
+	 * how each parameter is bound
+	 */
+	final DBManager.ValueType[] types;
+	/**
+	 * value of each '?' of sql
+	 */
+	final String[] parameters;
+
+	/**
+	 * @param sql
+	 * @param type how every parameter is bound
+	 * @param parameters
+	 */
+	PendingWrite(String sql, DBManager.ValueType type, String... parameters) {
+		this(sql, fill(type, parameters.length), parameters);
+	}
+
+	/**
+	 * @param sql
+	 * @param types how each parameter is bound
+	 * @param parameters
+	 */
+	PendingWrite(String sql, DBManager.ValueType[] types, String[] parameters) {
+		if (types.length != parameters.length) {
+			throw new IllegalArgumentException("need one type per parameter: " + sql);
+		}
+		this.sql = sql;
+		this.types = types;
+		this.parameters = parameters;
+	}
+
+	private static DBManager.ValueType[] fill(DBManager.ValueType type, int count) {
+		DBManager.ValueType[] types = new DBManager.ValueType[count];
+		Arrays.fill(types, type);
+		return types;
+	}
+
+	void bind(PreparedStatement stmt) throws SQLException {
+		for (int i = 0; i < parameters.length; i++) {
+			bind(stmt, i + 1, parameters[i], types[i]);
+		}
+	}
+
+	/**
+	 * execute the statement on its own
+	 *
+	 * @param conn
+	 * @param timeout time limit in ms, 0 for none
+	 * @throws SQLException
+	 */
+	void execute(PooledConnection conn, long timeout) throws SQLException {
+		PreparedStatement stmt = conn.prepareStatement(sql);
+		bind(stmt);
+		QueryTimeout.Watch watch = QueryTimeout.start(stmt, timeout);
+		try {
+			stmt.executeUpdate();
+		} finally {
+			QueryTimeout.stop(watch);
+		}
+	}
+
+	/**
+	 * bind a command value by its type
+	 *
+	 * @param stmt
+	 * @param index
+	 * @param value
+	 * @param type
+	 * @throws SQLException
+	 */
+	static void bind(PreparedStatement stmt, int index, String value, DBManager.ValueType type) throws SQLException {
+		if (value == null) {
+			stmt.setNull(index, Types.VARCHAR);
+			return;
+		}
+		if (type == DBManager.ValueType.TIMESTAMP && value.length() >= 19
+			&& TIMESTAMP_PATTERN.matcher(value).matches()) {
+			stmt.setTimestamp(index, Timestamp.valueOf(value.replace('T', ' ')));
+			return;
+		}
+		BigDecimal number = type == DBManager.ValueType.NUMBER ? toNumber(value) : null;
+		if (number != null) {
+			stmt.setBigDecimal(index, number);
+		} else {
+			stmt.setString(index, value);
+		}
+	}
+
+	private static BigDecimal toNumber(String value) {
+		if (value.isEmpty()) {
+			return null;
+		}
+		char first = value.charAt(0);
+		if (first != '-' && first != '+' && first != '.' && (first < '0' || first > '9')) {
+			return null;
+		}
+		try {
+			return new BigDecimal(value);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return sql + " " + Arrays.toString(parameters);
+	}
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Connection borrowed from a {@link ConnectionPool}, close() gives it back
+ * </p>
+ * <p>
+ * Prepared statements are kept in a per-connection LRU cache and must not be
+ * closed by the caller.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class PooledConnection implements AutoCloseable {
+
+	private final ConnectionPool pool;
+	private final Connection connection;
+	private final long createdAt;
+	private volatile long lastUsed;
+	/**
+	 * cached statements by SQL text, least recently used first
+	 */
+	private final LinkedHashMap<String, PreparedStatement> statementCache;
+	/**
+	 * statements handed out without caching, closed on release
+	 */
+	private final List<PreparedStatement> transientStatements = new ArrayList<>();
+
+	PooledConnection(ConnectionPool pool, Connection connection) {
+		this.pool = pool;
+		this.connection = connection;
+		this.createdAt = System.currentTimeMillis();
+		this.lastUsed = createdAt;
+		final int cacheSize = pool.getStatementCacheSize();
+		this.statementCache = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+				if (size() <= cacheSize) {
+					return false;
+				}
+				closeQuietly(eldest.getValue());
+				return true;
+			}
+		};
+	}
+
+	public Connection getConnection() {
+		return connection;
+	}
+
+	/**
+	 * get a cached statement or prepare a new one
+	 *
+	 * @param sql
+	 * @return PreparedStatement owned by this connection
+	 * @throws SQLException
+	 */
+	public PreparedStatement prepareStatement(String sql) throws SQLException {
+		if (pool.getStatementCacheSize() <= 0) {
+			return prepareTransientStatement(sql);
+		}
+		PreparedStatement stmt = statementCache.get(sql);
+		if (stmt != null && !stmt.isClosed()) {
+			pool.countStatementCacheHit();
+			return stmt;
+		}
+		pool.countStatementCacheMiss();
+		stmt = connection.prepareStatement(sql);
+		statementCache.put(sql, stmt);
+		return stmt;
+	}
+
+	/**
+	 * prepare a statement which is not worth caching, it is closed on release
+	 *
+	 * @param sql
+	 * @return PreparedStatement owned by this connection
+	 * @throws SQLException
+	 */
+	public PreparedStatement prepareTransientStatement(String sql) throws SQLException {
+		PreparedStatement stmt = connection.prepareStatement(sql);
+		transientStatements.add(stmt);
+		return stmt;
+	}
+
+	long getCreatedAt() {
+		return createdAt;
+	}
+
+	long getLastUsed() {
+		return lastUsed;
+	}
+
+	void setLastUsed(long lastUsed) {
+		this.lastUsed = lastUsed;
+	}
+
+	void closeTransientStatements() {
+		for (PreparedStatement stmt : transientStatements) {
+			closeQuietly(stmt);
+		}
+		transientStatements.clear();
+	}
+
+	void closePhysical() throws SQLException {
+		closeTransientStatements();
+		Iterator<PreparedStatement> it = statementCache.values().iterator();
+		while (it.hasNext()) {
+			closeQuietly(it.next());
+			it.remove();
+		}
+		connection.close();
+	}
+
+	private static void closeQuietly(PreparedStatement stmt) {
+		try {
+			stmt.close();
+		} catch (SQLException e) {
+			// connection is going away anyway
+		}
+	}
+
+	@Override
+	public void close() {
+		pool.release(this);
+	}
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openhab.binding.ACDBCommon.internal.ACDBBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * SQL of a binding, compiled once when the binding configuration is read
+ * </p>
+ * <p>
+ * Format is [serverId:]SQL. Without serverId the default server is used.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class QueryTemplate {
+	/**
+	 * logger
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(ACDBBinding.class);
+
+	/**
+	 * serverId prefix of SQL
+	 */
+	private static final Pattern SQL_PATTERN = Pattern.compile("^([^\'\"]+?)(\\:)(.*)");
+
+	/**
+	 * SQL as written in the binding configuration
+	 */
+	private final String source;
+	/**
+	 * server to connect
+	 */
+	private final String serverId;
+	/**
+	 * SQL to execute
+	 */
+	private final String sql;
+	/**
+	 * positions of the '?' parameters in sql, quoted question marks are not parameters
+	 */
+	private final int[] slots;
+	private final long queryTimeout;
+
+	/**
+	 * server with the generation it was resolved in, replaced as a whole
+	 */
+	private volatile Resolved resolved = new Resolved(-1, null);
+
+	private QueryTemplate(String source, String serverId, String sql, long queryTimeout) {
+		this.source = source;
+		this.serverId = serverId;
+		this.sql = sql;
+		this.queryTimeout = queryTimeout;
+
+		int[] found = new int[8];
+		int count = 0;
+		char quote = 0;
+		for (int i = 0; i < sql.length(); i++) {
+			char c = sql.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '\'' || c == '"') {
+				quote = c;
+			} else if (c == '?') {
+				if (count == found.length) {
+					found = Arrays.copyOf(found, count * 2);
+				}
+				found[count++] = i;
+			}
+		}
+		this.slots = Arrays.copyOf(found, count);
+	}
+
+	/**
+	 * compile SQL of a binding configuration
+	 *
+	 * @param allSql [serverId:]SQL
+	 * @return template, null if allSql is blank
+	 */
+	public static QueryTemplate compile(String allSql) {
+		return compile(allSql, 0);
+	}
+
+	/**
+	 * compile SQL of a binding configuration
+	 *
+	 * @param allSql [serverId:]SQL
+	 * @param queryTimeout time limit in ms, 0 for the limit of the server
+	 * @return template, null if allSql is blank
+	 */
+	public static QueryTemplate compile(String allSql, long queryTimeout) {
+		if (StringUtils.isBlank(allSql)) {
+			return null;
+		}
+		Matcher matcher = SQL_PATTERN.matcher(allSql);
+		if (matcher.matches()) {
+			return new QueryTemplate(allSql, matcher.group(1), matcher.group(3), queryTimeout);
+		}
+		return new QueryTemplate(allSql, DBManager.DEFAULT_SERVER_ID, allSql, queryTimeout);
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public String getServerId() {
+		return serverId;
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	/**
+	 * @return time limit in ms of the statement, 0 for the limit of the server
+	 */
+	public long getQueryTimeout() {
+		return queryTimeout;
+	}
+
+	public int getSlotCount() {
+		return slots.length;
+	}
+
+	/**
+	 * resolve the server, looked up again only after the server configuration changed
+	 *
+	 * @return server, null if the server is not configured
+	 */
+	public ServerInfo getServer() {
+		// read before the lookup, a server looked up later is at least as new
+		int generation = DBManager.getServerGeneration();
+		Resolved current = resolved;
+		if (current.generation != generation) {
+			ServerInfo server = DBManager.getServer(serverId);
+			if (server == null) {
+				logger.error("no SQL server found.[{}]", source);
+			}
+			current = new Resolved(generation, server);
+			resolved = current;
+		}
+		return current.server;
+	}
+
+	@Override
+	public String toString() {
+		return source;
+	}
+
+	private static final class Resolved {
+		final int generation;
+		final ServerInfo server;
+
+		Resolved(int generation, ServerInfo server) {
+			this.generation = generation;
+			this.server = server;
+		}
+	}
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.ACDBCommon.db;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.binding.ACDBCommon.internal.ACDBBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Time limit of a statement
+ * </p>
+ * <p>
+ * The limit is given to the driver with setQueryTimeout, which only knows
+ * whole seconds and is ignored by some drivers. A watchdog therefore also
+ * calls Statement.cancel() when the limit has passed.
+ * </p>
+ * <p>
+ * Statements are cached per connection and reused by the next borrower. The
+ * cancel is therefore tied to one execution by a {@link Watch}, once stopped
+ * it can no longer reach the statement.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+final class QueryTimeout {
+	/**
+	 * logger
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(ACDBBinding.class);
+
+	/**
+	 * cancels statements running past their limit
+	 */
+	private static final ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1,
+		new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "ACDB statement watchdog");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+	static {
+		watchdog.setRemoveOnCancelPolicy(true);
+	}
+
+	private QueryTimeout() {
+	}
+
+	/**
+	 * @param server
+	 * @param query null for statements without item settings
+	 * @param limit upper bound in ms given by the caller, 0 for none
+	 * @return time limit in ms, 0 for none
+	 */
+	static long of(ServerInfo server, QueryTemplate query, long limit) {
+		long configured = query != null && query.getQueryTimeout() > 0 ? query.getQueryTimeout() : server
+			.getQueryTimeout();
+		if (limit > 0 && (configured <= 0 || limit < configured)) {
+			return limit;
+		}
+		return configured;
+	}
+
+	/**
+	 * apply a time limit to a statement about to be executed
+	 *
+	 * @param stmt
+	 * @param timeout time limit in ms, 0 for none
+	 * @return watchdog to be passed to {@link #stop(Watch)}, null without limit
+	 * @throws SQLException
+	 */
+	static Watch start(Statement stmt, long timeout) throws SQLException {
+		// statements are cached, so a previous limit is always overwritten
+		stmt.setQueryTimeout(timeout > 0 ? (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeout + 999)) : 0);
+		if (timeout <= 0) {
+			return null;
+		}
+		Watch watch = new Watch(stmt, timeout);
+		watch.future = watchdog.schedule(watch, timeout, TimeUnit.MILLISECONDS);
+		return watch;
+	}
+
+	/**
+	 * the statement has finished, to be called before it is used again
+	 *
+	 * @param watch result of {@link #start(Statement, long)}
+	 */
+	static void stop(Watch watch) {
+		if (watch != null) {
+			watch.stop();
+		}
+	}
+
+	/**
+	 * cancel of one execution of a statement
+	 */
+	static final class Watch implements Runnable {
+		private final Statement stmt;
+		private final long timeout;
+		private volatile ScheduledFuture<?> future;
+		/**
+		 * set by stop, guarded by this
+		 */
+		private boolean stopped;
+
+		Watch(Statement stmt, long timeout) {
+			this.stmt = stmt;
+			this.timeout = timeout;
+		}
+
+		@Override
+		public synchronized void run() {
+			if (stopped) {
+				return;
+			}
+			try {
+				logger.debug("cancelling statement running longer than {}ms", timeout);
+				stmt.cancel();
+			} catch (SQLException e) {
+				logger.debug("failed to cancel statement", e);
+			}
+		}
+
+		/**
+		 * waits for a running cancel, later ones do nothing
+		 */
+		void stop() {
+			synchronized (this) {
+				stopped = true;
+			}
+			ScheduledFuture<?> current = future;
+			if (current != null) {
+				current.cancel(false);
+			}
+		}
+	}
+}
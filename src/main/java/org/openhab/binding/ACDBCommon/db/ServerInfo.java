@@ -11,6 +11,10 @@ package org.openhab.binding.ACDBCommon.db;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
 
 /**
  * <p>
@@ -26,7 +30,17 @@ public class ServerInfo {
 	private String user = "";
 	private String password = "";
 	private String driverClassName = "";
-	private Connection connection;
+	private long queryTimeout;
+	/**
+	 * settings the server was configured with, to find unchanged servers on reconfiguration
+	 */
+	private final Map<String, String> definition = new HashMap<>();
+	private final ConnectionPool pool = new ConnectionPool(this);
+	private final WriteBehindQueue writeBehind = new WriteBehindQueue(this);
+	private final UpdateCoalescer coalescer = new UpdateCoalescer(this);
+	private final ChangeLog changeLog = new ChangeLog(this);
+	private final ServerMetrics metrics = new ServerMetrics(this);
+	private final CircuitBreaker circuitBreaker;
 
 	public String getServerId() {
 		return serverId;
@@ -68,12 +82,70 @@ public class ServerInfo {
 		this.driverClassName = driverClassName;
 	}
 
-	public void setConnection(Connection connection) {
-		this.connection = connection;
+	/**
+	 * @return time limit in ms of statements, 0 for none
+	 */
+	public long getQueryTimeout() {
+		return queryTimeout;
+	}
+
+	public void setQueryTimeout(long queryTimeout) {
+		this.queryTimeout = queryTimeout;
+	}
+
+	/**
+	 * remember a setting of the server
+	 *
+	 * @param configKey
+	 * @param value
+	 */
+	public void define(String configKey, String value) {
+		definition.put(configKey, value);
+	}
+
+	/**
+	 * @param other
+	 * @return true if both servers were configured with the same settings
+	 */
+	public boolean isSameDefinition(ServerInfo other) {
+		return serverId.equals(other.serverId) && definition.equals(other.definition)
+			&& StringUtils.equals(driverClassName, other.driverClassName);
+	}
+
+	public ConnectionPool getPool() {
+		return pool;
+	}
+
+	public WriteBehindQueue getWriteBehind() {
+		return writeBehind;
+	}
+
+	public UpdateCoalescer getCoalescer() {
+		return coalescer;
+	}
+
+	public ChangeLog getChangeLog() {
+		return changeLog;
+	}
+
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	public ServerMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * @return JMX name of the metrics
+	 */
+	public String getMetricsName() {
+		return MBeans.objectName("Server", serverId);
 	}
 
 	public ServerInfo(String serverId) {
 		this.serverId = serverId;
+		this.circuitBreaker = new CircuitBreaker(serverId);
 	}
 
 	@Override
@@ -82,16 +154,28 @@ public class ServerInfo {
 	}
 
 	/**
-	 * DB接続を取得する
+	 * DB接続をプールから取得する
 	 * 
-	 * @return Connection
+	 * @return Connection to be closed by the caller
 	 * @throws Exception
+	 *             接続異常, or at once while the circuit breaker is open
 	 */
-	public Connection getConnection() throws Exception {
-		if (connection == null || connection.isClosed()) {
-			connection = this.openConnection();
+	public PooledConnection getConnection() throws Exception {
+		boolean probe = circuitBreaker.acquire();
+		long start = System.nanoTime();
+		try {
+			PooledConnection conn = pool.borrow();
+			metrics.connect().recordSince(start);
+			circuitBreaker.recordSuccess();
+			return conn;
+		} catch (Exception e) {
+			metrics.connect().recordError();
+			// failed connects are counted by the pool, an exhausted pool is no server failure
+			if (probe) {
+				circuitBreaker.releaseProbe();
+			}
+			throw e;
 		}
-		return connection;
 	}
 
 	/**
@@ -104,7 +188,7 @@ public class ServerInfo {
 	 */
 	public Connection openConnection() throws Exception {
 		// DBのドライバを指定
-		Class.forName(driverClassName);
+		DBManager.loadDriver(driverClassName);
 		// データベースに接続 (DB名,ID,パスワードを指定)
 		Connection conn = DriverManager.getConnection(url, user, password);
 		return conn;
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Latency and error counts of the statements of one DB server
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class ServerMetrics implements ServerMetricsMXBean {
+
+	private final ServerInfo server;
+
+	private final LatencyHistogram select = new LatencyHistogram();
+	private final LatencyHistogram update = new LatencyHistogram();
+	private final LatencyHistogram insert = new LatencyHistogram();
+	private final LatencyHistogram connect = new LatencyHistogram();
+	private final AtomicLong reconnects = new AtomicLong();
+
+	public ServerMetrics(ServerInfo server) {
+		this.server = server;
+	}
+
+	LatencyHistogram select() {
+		return select;
+	}
+
+	LatencyHistogram update() {
+		return update;
+	}
+
+	LatencyHistogram insert() {
+		return insert;
+	}
+
+	LatencyHistogram connect() {
+		return connect;
+	}
+
+	void countReconnect() {
+		reconnects.incrementAndGet();
+	}
+
+	@Override
+	public LatencySnapshot getSelect() {
+		return select.snapshot();
+	}
+
+	@Override
+	public LatencySnapshot getUpdate() {
+		return update.snapshot();
+	}
+
+	@Override
+	public LatencySnapshot getInsert() {
+		return insert.snapshot();
+	}
+
+	@Override
+	public LatencySnapshot getConnect() {
+		return connect.snapshot();
+	}
+
+	@Override
+	public long getReconnectCount() {
+		return reconnects.get();
+	}
+
+	@Override
+	public int getOpenConnections() {
+		return server.getPool().getTotal();
+	}
+
+	@Override
+	public int getIdleConnections() {
+		return server.getPool().getIdle();
+	}
+
+	@Override
+	public String getCircuitState() {
+		return server.getCircuitBreaker().getState().name();
+	}
+
+	@Override
+	public long getCircuitTrips() {
+		return server.getCircuitBreaker().getTrips();
+	}
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+/**
+ * <p>
+ * JMX view of the statements of one DB server
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public interface ServerMetricsMXBean {
+
+	LatencySnapshot getSelect();
+
+	LatencySnapshot getUpdate();
+
+	LatencySnapshot getInsert();
+
+	/**
+	 * @return time waiting for a pooled connection
+	 */
+	LatencySnapshot getConnect();
+
+	/**
+	 * @return number of broken or expired connections replaced
+	 */
+	long getReconnectCount();
+
+	int getOpenConnections();
+
+	/**
+	 * @return CLOSED, OPEN or HALF_OPEN
+	 */
+	String getCircuitState();
+
+	/**
+	 * @return number of times the circuit breaker opened
+	 */
+	long getCircuitTrips();
+
+	int getIdleConnections();
+}
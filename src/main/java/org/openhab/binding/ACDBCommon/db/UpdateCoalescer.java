@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openhab.binding.ACDBCommon.internal.ACDBBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Coalesces update writes of one DB server
+ * </p>
+ * <p>
+ * An update is held back for the coalescing window, updates of the same
+ * query arriving within the window replace it and only the latest value is
+ * written.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class UpdateCoalescer {
+	/**
+	 * logger
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(ACDBBinding.class);
+
+	/**
+	 * timer shared by all servers, the writes run on the flush executor of DBManager
+	 */
+	private static final ScheduledExecutorService timer = Executors
+		.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "ACDB update timer");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+	private final ServerInfo server;
+
+	/**
+	 * coalescing window in ms, 0 writes immediately
+	 */
+	private long window;
+
+	/**
+	 * latest pending value by update query
+	 */
+	private final ConcurrentMap<QueryTemplate, PendingWrite> dirty = new ConcurrentHashMap<>();
+
+	private final AtomicLong coalesced = new AtomicLong();
+	private final AtomicLong written = new AtomicLong();
+
+	public UpdateCoalescer(ServerInfo server) {
+		this.server = server;
+	}
+
+	public long getWindow() {
+		return window;
+	}
+
+	public void setWindow(long window) {
+		this.window = window;
+	}
+
+	public boolean isEnabled() {
+		return window > 0;
+	}
+
+	/**
+	 * @return number of updates replaced by a later value
+	 */
+	public long getCoalescedCount() {
+		return coalesced.get();
+	}
+
+	/**
+	 * @return number of updates written
+	 */
+	public long getWrittenCount() {
+		return written.get();
+	}
+
+	/**
+	 * @return number of queries with a pending value
+	 */
+	public int getPendingCount() {
+		return dirty.size();
+	}
+
+	/**
+	 * hold back an update until the end of the window
+	 *
+	 * @param query
+	 * @param write
+	 */
+	void put(final QueryTemplate query, PendingWrite write) {
+		if (dirty.put(query, write) != null) {
+			coalesced.incrementAndGet();
+			return;
+		}
+		timer.schedule(new Runnable() {
+			@Override
+			public void run() {
+				DBManager.executeFlush(new Runnable() {
+					@Override
+					public void run() {
+						flush(query);
+					}
+				});
+			}
+		}, window, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * write the pending value of a query now
+	 *
+	 * @param query
+	 * @return true if a value was pending
+	 */
+	public boolean flush(QueryTemplate query) {
+		// serialize writes of a query so an older value never overtakes a newer one
+		synchronized (query) {
+			PendingWrite write = dirty.remove(query);
+			if (write == null) {
+				return false;
+			}
+			try {
+				DBManager.write(server, query, write);
+				written.incrementAndGet();
+			} catch (Exception e) {
+				logger.error("failed to write coalesced update of " + server.getServerId(), e);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * write all pending values
+	 */
+	public void flushAll() {
+		for (QueryTemplate query : new ArrayList<>(dirty.keySet())) {
+			flush(query);
+		}
+	}
+}
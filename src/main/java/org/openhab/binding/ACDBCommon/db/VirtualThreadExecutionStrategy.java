@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * One virtual thread per task
+ * </p>
+ * <p>
+ * Virtual threads exist from Java 21 on while the binding is built for Java 8,
+ * so the API is called by reflection. Like the fixed pools of the platform
+ * strategy, at most the given number of tasks of an executor run at the same
+ * time, further tasks wait for a permit in their own virtual thread.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class VirtualThreadExecutionStrategy implements ExecutionStrategy {
+
+	public static final String NAME = "virtual";
+
+	private static final Method OF_VIRTUAL;
+	private static final Method NAME_METHOD;
+	private static final Method FACTORY_METHOD;
+	private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+	static {
+		Method ofVirtual = null;
+		Method name = null;
+		Method factory = null;
+		Method newThreadPerTaskExecutor = null;
+		try {
+			Class<?> builder = Class.forName("java.lang.Thread$Builder");
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			name = builder.getMethod("name", String.class, long.class);
+			factory = builder.getMethod("factory");
+			newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+		} catch (Exception e) {
+			// runtime without virtual threads
+			ofVirtual = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		NAME_METHOD = name;
+		FACTORY_METHOD = factory;
+		NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+	}
+
+	/**
+	 * @return true if the runtime has virtual threads
+	 */
+	public static boolean isSupported() {
+		return OF_VIRTUAL != null;
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public ExecutorService newExecutor(String name, int threads) {
+		if (!isSupported()) {
+			throw new UnsupportedOperationException("virtual threads are not supported by this runtime");
+		}
+		try {
+			Object builder = NAME_METHOD.invoke(OF_VIRTUAL.invoke(null), name + " ", 1L);
+			ThreadFactory factory = (ThreadFactory) FACTORY_METHOD.invoke(builder);
+			return new BoundedExecutor((ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory),
+				Math.max(1, threads));
+		} catch (Exception e) {
+			throw new IllegalStateException("failed to create virtual thread executor", e);
+		}
+	}
+
+	/**
+	 * executor running at most a number of its tasks at the same time
+	 */
+	private static final class BoundedExecutor extends AbstractExecutorService {
+		private final ExecutorService delegate;
+		private final Semaphore permits;
+
+		BoundedExecutor(ExecutorService delegate, int threads) {
+			this.delegate = delegate;
+			this.permits = new Semaphore(threads);
+		}
+
+		@Override
+		public void execute(final Runnable command) {
+			delegate.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						permits.acquire();
+					} catch (InterruptedException e) {
+						// shut down while waiting
+						Thread.currentThread().interrupt();
+						return;
+					}
+					try {
+						command.run();
+					} finally {
+						permits.release();
+					}
+				}
+			});
+		}
+
+		@Override
+		public void shutdown() {
+			delegate.shutdown();
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			return delegate.shutdownNow();
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return delegate.isShutdown();
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return delegate.isTerminated();
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+			return delegate.awaitTermination(timeout, unit);
+		}
+	}
+}
@@ -0,0 +1,356 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.openhab.binding.ACDBCommon.internal.ACDBBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Asynchronous insert queue of one DB server
+ * </p>
+ * <p>
+ * Inserts are collected until batchSize is reached or flushInterval has passed
+ * since the first one, then executed as JDBC batches and committed together.
+ * </p>
+ * <p>
+ * Once closed, inserts are no longer queued and the caller executes them
+ * itself, so nothing is left in a queue which is not drained any more.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class WriteBehindQueue {
+	/**
+	 * logger
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(ACDBBinding.class);
+
+	/**
+	 * behavior when the queue is full
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * wait for space in the queue
+		 */
+		BLOCK,
+		/**
+		 * discard the new insert
+		 */
+		DROP,
+		/**
+		 * discard the oldest queued insert
+		 */
+		DROP_OLDEST,
+		/**
+		 * execute the new insert synchronously
+		 */
+		SYNC
+	}
+
+	private final ServerInfo server;
+
+	private boolean enabled;
+	private int batchSize = 100;
+	private long flushInterval = TimeUnit.SECONDS.toMillis(1);
+	private int queueSize = 10000;
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+	private final AtomicLong queued = new AtomicLong();
+	private final AtomicLong written = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+
+	private volatile BlockingQueue<PendingWrite> queue;
+	private volatile ExecutorService flusher;
+	/**
+	 * shared by offers, exclusive to start and close
+	 */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	public WriteBehindQueue(ServerInfo server) {
+		this.server = server;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public long getFlushInterval() {
+		return flushInterval;
+	}
+
+	public void setFlushInterval(long flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	public void setQueueSize(int queueSize) {
+		this.queueSize = queueSize;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * @return number of inserts waiting in the queue
+	 */
+	public int getDepth() {
+		BlockingQueue<PendingWrite> q = queue;
+		return q != null ? q.size() : 0;
+	}
+
+	public long getQueuedCount() {
+		return queued.get();
+	}
+
+	public long getWrittenCount() {
+		return written.get();
+	}
+
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	public long getFailedCount() {
+		return failed.get();
+	}
+
+	/**
+	 * start the flush thread if write-behind is enabled
+	 */
+	public void start() {
+		lock.writeLock().lock();
+		try {
+			if (!enabled || flusher != null) {
+				return;
+			}
+			queue = new ArrayBlockingQueue<>(queueSize);
+			final ExecutorService executor = DBManager.getExecutionStrategy().newExecutor(
+				"ACDB write-behind " + server.getServerId(), 1);
+			flusher = executor;
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					flushLoop(executor);
+				}
+			});
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * stop queueing, let the flush thread finish its batch and write the remaining inserts
+	 */
+	public void close() {
+		ExecutorService executor;
+		lock.writeLock().lock();
+		try {
+			executor = flusher;
+			flusher = null;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		if (executor == null) {
+			return;
+		}
+		// not interrupted, an interrupt aborts the running batch in some drivers
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(2 * flushInterval + TimeUnit.SECONDS.toMillis(10), TimeUnit.MILLISECONDS)) {
+				logger.warn("write-behind of {} did not finish its batch before shutdown", server.getServerId());
+				executor.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		List<PendingWrite> rest = new ArrayList<>();
+		queue.drainTo(rest);
+		if (!rest.isEmpty()) {
+			flush(rest);
+		}
+	}
+
+	/**
+	 * queue an insert
+	 *
+	 * @param write
+	 * @return false if the caller has to execute the insert itself, also once closed
+	 * @throws SQLException interrupted while waiting for space
+	 */
+	boolean offer(PendingWrite write) throws SQLException {
+		lock.readLock().lock();
+		try {
+			BlockingQueue<PendingWrite> q = queue;
+			if (q == null || flusher == null) {
+				return false;
+			}
+			return offer(q, write);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private boolean offer(BlockingQueue<PendingWrite> q, PendingWrite write) throws SQLException {
+		if (q.offer(write)) {
+			queued.incrementAndGet();
+			return true;
+		}
+		switch (overflowPolicy) {
+		case DROP:
+			dropped.incrementAndGet();
+			logger.warn("write-behind queue of {} is full, insert dropped: {}", server.getServerId(), write);
+			return true;
+		case DROP_OLDEST:
+			while (!q.offer(write)) {
+				PendingWrite oldest = q.poll();
+				if (oldest != null) {
+					dropped.incrementAndGet();
+					logger.warn("write-behind queue of {} is full, insert dropped: {}", server.getServerId(), oldest);
+				}
+			}
+			queued.incrementAndGet();
+			return true;
+		case SYNC:
+			return false;
+		default:
+			try {
+				q.put(write);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SQLException("interrupted waiting for write-behind queue: " + server.getServerId(), e);
+			}
+			queued.incrementAndGet();
+			return true;
+		}
+	}
+
+	private void flushLoop(ExecutorService executor) {
+		List<PendingWrite> batch = new ArrayList<>(batchSize);
+		while (flusher == executor) {
+			try {
+				PendingWrite first = queue.poll(flushInterval, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushInterval);
+				while (batch.size() < batchSize) {
+					long remaining = deadline - System.nanoTime();
+					PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+				}
+			} catch (InterruptedException e) {
+				// closing, remaining inserts are written by close()
+			}
+			if (!batch.isEmpty()) {
+				flush(batch);
+				batch.clear();
+			}
+		}
+	}
+
+	/**
+	 * execute inserts as batches in one transaction
+	 *
+	 * @param batch
+	 */
+	private void flush(List<PendingWrite> batch) {
+		try (PooledConnection conn = server.getConnection()) {
+			Connection connection = conn.getConnection();
+			boolean autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+			Map<String, PreparedStatement> prepared = new LinkedHashMap<>();
+			try {
+				for (PendingWrite write : batch) {
+					PreparedStatement stmt = prepared.get(write.sql);
+					if (stmt == null) {
+						stmt = conn.prepareStatement(write.sql);
+						prepared.put(write.sql, stmt);
+					}
+					write.bind(stmt);
+					stmt.addBatch();
+				}
+				for (PreparedStatement stmt : prepared.values()) {
+					QueryTimeout.Watch watch = QueryTimeout.start(stmt, server.getQueryTimeout());
+					try {
+						stmt.executeBatch();
+					} finally {
+						QueryTimeout.stop(watch);
+					}
+				}
+				connection.commit();
+				written.addAndGet(batch.size());
+				logger.debug("write-behind of {} committed {} inserts", server.getServerId(), batch.size());
+			} catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			} finally {
+				for (String sql : prepared.keySet()) {
+					DBManager.fireWritten(server, sql);
+				}
+				// the statements stay cached on the connection, do not leave a batch on them
+				for (PreparedStatement stmt : prepared.values()) {
+					try {
+						stmt.clearBatch();
+					} catch (SQLException e) {
+						logger.debug("failed to clear batch", e);
+					}
+				}
+				connection.setAutoCommit(autoCommit);
+			}
+		} catch (Exception e) {
+			failed.addAndGet(batch.size());
+			logger.error("write-behind of " + server.getServerId() + " failed to write " + batch.size()
+				+ " inserts", e);
+		}
+	}
+}
@@ -9,26 +9,54 @@
 
 package org.openhab.binding.ACDBCommon.internal;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 import org.openhab.binding.ACDBCommon.ACDBBindingProvider;
+import org.openhab.binding.ACDBCommon.db.CircuitBreaker;
+import org.openhab.binding.ACDBCommon.db.ConnectionPool;
 import org.openhab.binding.ACDBCommon.db.DBManager;
+import org.openhab.binding.ACDBCommon.db.ExecutionStrategy;
+import org.openhab.binding.ACDBCommon.db.LatencyHistogram;
+import org.openhab.binding.ACDBCommon.db.MBeans;
+import org.openhab.binding.ACDBCommon.db.PlatformExecutionStrategy;
+import org.openhab.binding.ACDBCommon.db.QueryTemplate;
 import org.openhab.binding.ACDBCommon.db.ServerInfo;
+import org.openhab.binding.ACDBCommon.db.VirtualThreadExecutionStrategy;
+import org.openhab.binding.ACDBCommon.db.WriteBehindQueue;
 import org.openhab.core.binding.AbstractActiveBinding;
+import org.openhab.core.binding.BindingProvider;
 import org.openhab.core.events.EventPublisher;
-import org.openhab.core.items.Item;
+import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.State;
-import org.openhab.core.types.TypeParser;
 import org.osgi.service.cm.ConfigurationException;
 import org.osgi.service.cm.ManagedService;
 import org.slf4j.Logger;
@@ -53,7 +81,51 @@ public abstract class ACDBBinding extends AbstractActiveBinding<ACDBBindingProvi
 	 * option format to connect multiple connections
 	 */
 	private static final Pattern DEVICES_PATTERN = Pattern
-		.compile("^(.*?)\\.(url|user|password)$");
+		.compile("^(.*?)\\.(url|user|password|pool\\.[a-zA-Z]+|writeBehind\\.[a-zA-Z]+|breaker\\.[a-zA-Z]+|queryTimeout|coalesceWindow|changelog|changelogStart)$");
+	/**
+	 * option format of connection pool settings
+	 * [serverId.]pool.(minSize|maxSize|validationTimeout|idleTimeout|maxLifetime|borrowTimeout
+	 *     |statementCacheSize)
+	 */
+	private static final String POOL_PREFIX = "pool.";
+	/**
+	 * option format of asynchronous insert settings
+	 * [serverId.]writeBehind.(enabled|batchSize|flushInterval|queueSize|overflow)
+	 */
+	private static final String WRITE_BEHIND_PREFIX = "writeBehind.";
+	/**
+	 * option format of circuit breaker settings
+	 * [serverId.]breaker.(failureThreshold|openDuration|maxOpenDuration)
+	 */
+	private static final String BREAKER_PREFIX = "breaker.";
+	/**
+	 * window in ms within which only the latest update of an item is written
+	 * [serverId.]coalesceWindow, optional, defaults to 0 (write immediately)
+	 */
+	private static final String COALESCE_WINDOW = "coalesceWindow";
+	/**
+	 * time limit in ms of statements, items may override it with timeout=limit:
+	 * [serverId.]queryTimeout, optional, defaults to 0 (none)
+	 */
+	private static final String QUERY_TIMEOUT = "queryTimeout";
+	/**
+	 * SQL reading the change-log table, the only parameter is the high-water mark
+	 * [serverId.]changelog, e.g. SELECT seq, item_key, value FROM changes WHERE seq &gt; ? ORDER BY seq
+	 */
+	private static final String CHANGELOG = "changelog";
+	/**
+	 * SQL returning the sequence the first change-log poll starts after
+	 * [serverId.]changelogStart, optional, defaults to SELECT MAX(first column) FROM the change-log table
+	 */
+	private static final String CHANGELOG_START = "changelogStart";
+	/**
+	 * number of buckets of the polling scheduler
+	 */
+	private static final int WHEEL_SIZE = 512;
+	/**
+	 * number of servers connected at the same time at startup
+	 */
+	private static final int WARM_UP_THREADS = 8;
 	/**
 	 * item registry
 	 */
@@ -72,9 +144,187 @@ public abstract class ACDBBinding extends AbstractActiveBinding<ACDBBindingProvi
 	private long refreshInterval = TimeUnit.SECONDS.toMillis(60);
 
 	/**
-	 * Item value map
+	 * resolution of the polling scheduler in ms
+	 * optional, defaults to 1s
+	 * [bindingName]:tick
+	 */
+	private long tick = TimeUnit.SECONDS.toMillis(1);
+
+	/**
+	 * decides which items are due in a refresh cycle
+	 */
+	private volatile PollScheduler scheduler = new PollScheduler(tick, WHEEL_SIZE, System.currentTimeMillis());
+
+	/**
+	 * set when bindings changed and the scheduler has to be synchronized
+	 */
+	private volatile boolean schedulerDirty = true;
+
+	/**
+	 * item names by change-log key by serverId
+	 */
+	private volatile Map<String, Map<String, List<String>>> changeLogItems = Collections.emptyMap();
+
+	/**
+	 * back off polling of items whose value does not change
+	 * optional, defaults to false
+	 * [bindingName]:adaptive
+	 */
+	private boolean adaptive;
+
+	/**
+	 * lower bound of the adaptive polling interval in ms
+	 * optional, defaults to the polling interval of the item
+	 * [bindingName]:adaptiveMin
+	 */
+	private long adaptiveMin;
+
+	/**
+	 * upper bound of the adaptive polling interval in ms
+	 * optional, defaults to 10min
+	 * [bindingName]:adaptiveMax
+	 */
+	private long adaptiveMax = TimeUnit.MINUTES.toMillis(10);
+
+	/**
+	 * number of servers polled at the same time
+	 * optional, defaults to 1 (serial)
+	 * [bindingName]:parallelism
 	 */
-	private Map<String, String> itemValueMap = new HashMap<>();
+	private int parallelism = 1;
+
+	/**
+	 * time in ms a refresh cycle may take, items not polled by then are deferred to the next cycle
+	 * optional, defaults to 0 (unlimited)
+	 * [bindingName]:cycleBudget
+	 */
+	private long cycleBudget;
+
+	/**
+	 * open connections on first use instead of when the configuration is applied
+	 * optional, defaults to false
+	 * [bindingName]:lazyConnect
+	 */
+	private boolean lazyConnect;
+
+	/**
+	 * time in ms to wait for the first connections of all servers, which are opened in parallel
+	 * optional, defaults to 30s, servers still connecting afterwards continue in the background
+	 * [bindingName]:startupTimeout
+	 */
+	private long startupTimeout = TimeUnit.SECONDS.toMillis(30);
+
+	/**
+	 * time in ms a selected value may be reused when a state update asks for the item
+	 * optional, defaults to 0 (always select), items may override it with cache=ttl:
+	 * [bindingName]:cacheTtl
+	 */
+	private long cacheTtl;
+
+	/**
+	 * number of select results kept for state updates
+	 * optional, defaults to 1000
+	 * [bindingName]:cacheSize
+	 */
+	private int cacheSize = 1000;
+
+	/**
+	 * select results by server and SQL, null without cache
+	 */
+	private volatile ResultCache resultCache;
+
+	/**
+	 * drops cached select results when a write to their server was executed
+	 */
+	private final DBManager.WriteListener cacheInvalidator = new DBManager.WriteListener() {
+		@Override
+		public void written(ServerInfo server, String sql) {
+			ResultCache cache = resultCache;
+			if (cache != null) {
+				cache.invalidate(server, sql);
+			}
+		}
+	};
+
+	/**
+	 * set when the binding or an item has a cache TTL, the refresh cycle fills the cache only then
+	 */
+	private volatile boolean cacheUsed;
+
+	/**
+	 * rows fetched per round-trip by table scans
+	 * optional, defaults to 500
+	 * [bindingName]:scanFetchSize
+	 */
+	private int scanFetchSize = 500;
+
+	/**
+	 * workers of the parallel refresh cycle, null when polling serially
+	 */
+	private ExecutorService refreshExecutor;
+
+	/**
+	 * number of lanes handling commands and updates off the event bus thread
+	 * optional, defaults to 4, 0 handles them on the event bus thread
+	 * [bindingName]:commandLanes
+	 */
+	private int commandLanes = 4;
+
+	/**
+	 * waiting commands per lane
+	 * optional, defaults to 1000
+	 * [bindingName]:commandQueueSize
+	 */
+	private int commandQueueSize = 1000;
+
+	/**
+	 * behavior when a command lane is full: block, drop or sync
+	 * optional, defaults to block
+	 * [bindingName]:commandOverflow
+	 */
+	private CommandDispatcher.OverflowPolicy commandOverflow = CommandDispatcher.OverflowPolicy.BLOCK;
+
+	/**
+	 * threads running blocking JDBC work: platform (fixed pools) or virtual (one virtual thread per task)
+	 * optional, defaults to platform, virtual needs Java 21 and falls back to platform otherwise
+	 * [bindingName]:executor
+	 */
+	private ExecutionStrategy executionStrategy = new PlatformExecutionStrategy();
+
+	/**
+	 * lanes of command and update handling, null when handled on the event bus thread
+	 */
+	private volatile CommandDispatcher commandDispatcher;
+
+	/**
+	 * duration of the last refresh cycle in ms
+	 */
+	private volatile long lastCycleDuration;
+
+	/**
+	 * number of item polls deferred because the cycle budget was used up
+	 */
+	private final AtomicLong deferredPolls = new AtomicLong();
+
+	/**
+	 * last known value of each item
+	 */
+	private final ItemStateCache itemStates = new ItemStateCache();
+
+	/**
+	 * State conversion of each item, dropped when bindings change
+	 */
+	private final ConcurrentMap<String, StateReader> stateReaders = new ConcurrentHashMap<>();
+
+	/**
+	 * bindings of each item over all providers, kept up to date on binding changes
+	 */
+	private final ConcurrentMap<String, ItemRoute[]> routes = new ConcurrentHashMap<>();
+
+	/**
+	 * latency of the refresh cycle and of each item, registered as MBean
+	 */
+	private final BindingMetrics metrics = new BindingMetrics(this);
 
 	/**
 	 * get binding name
@@ -94,17 +344,134 @@ public abstract class ACDBBinding extends AbstractActiveBinding<ACDBBindingProvi
 	 * deactivate
 	 */
 	public void deactivate() {
+		shutdownRefreshExecutor();
+		shutdownCommandDispatcher();
 		try {
 			DBManager.closeConnection();
 		} catch (Exception e) {
 			logger.error(getBindingName() + ":failed to close DB connecton.", e);
 		}
+		DBManager.removeWriteListener(cacheInvalidator);
+		MBeans.unregister(getMetricsName());
 		logger.debug(getBindingName() + " binding deactivated");
 	}
 
 	@Override
 	protected long getRefreshInterval() {
-		return refreshInterval;
+		return Math.min(tick, refreshInterval);
+	}
+
+	@Override
+	public void addBindingProvider(ACDBBindingProvider provider) {
+		super.addBindingProvider(provider);
+		stateReaders.clear();
+		route(provider);
+		schedulerDirty = true;
+	}
+
+	@Override
+	public void removeBindingProvider(ACDBBindingProvider provider) {
+		super.removeBindingProvider(provider);
+		stateReaders.clear();
+		route(provider);
+		schedulerDirty = true;
+	}
+
+	@Override
+	public void bindingChanged(BindingProvider provider, String itemName) {
+		super.bindingChanged(provider, itemName);
+		stateReaders.remove(itemName);
+		if (provider instanceof ACDBBindingProvider) {
+			route((ACDBBindingProvider) provider, itemName);
+		}
+		schedulerDirty = true;
+	}
+
+	@Override
+	public void allBindingsChanged(BindingProvider provider) {
+		super.allBindingsChanged(provider);
+		stateReaders.clear();
+		if (provider instanceof ACDBBindingProvider) {
+			route((ACDBBindingProvider) provider);
+		}
+		schedulerDirty = true;
+	}
+
+	/**
+	 * resolve again all items bound by a provider, or drop them if the provider is gone
+	 *
+	 * @param provider
+	 */
+	private void route(ACDBBindingProvider provider) {
+		synchronized (routes) {
+			Set<String> itemNames = new HashSet<>();
+			for (Map.Entry<String, ItemRoute[]> entry : routes.entrySet()) {
+				for (ItemRoute route : entry.getValue()) {
+					if (route.provider == provider) {
+						itemNames.add(entry.getKey());
+					}
+				}
+			}
+			if (providers.contains(provider)) {
+				itemNames.addAll(provider.getItemNames());
+			}
+			for (String itemName : itemNames) {
+				route(provider, itemName);
+			}
+		}
+	}
+
+	/**
+	 * resolve again the binding of an item by a provider
+	 *
+	 * @param provider
+	 * @param itemName
+	 */
+	private void route(ACDBBindingProvider provider, String itemName) {
+		synchronized (routes) {
+			List<ItemRoute> next = new ArrayList<>();
+			ItemRoute[] current = routes.get(itemName);
+			if (current != null) {
+				for (ItemRoute route : current) {
+					if (route.provider != provider) {
+						next.add(route);
+					}
+				}
+			}
+			if (providers.contains(provider) && provider.providesBindingFor(itemName)) {
+				ItemRoute route = new ItemRoute(provider, itemName);
+				if (!route.isEmpty()) {
+					next.add(route);
+				}
+			}
+			if (next.isEmpty()) {
+				routes.remove(itemName);
+				metrics.removeItem(itemName);
+			} else {
+				routes.put(itemName, next.toArray(new ItemRoute[next.size()]));
+			}
+		}
+	}
+
+	/**
+	 * get polling interval of an item
+	 *
+	 * @param itemName
+	 * @return interval in ms, the shortest if several providers bind the item, 0 if the item is not polled
+	 */
+	public long getPollInterval(String itemName) {
+		return scheduler.getInterval(itemName);
+	}
+
+	/**
+	 * get interval an item is actually polled at, differs from the polling
+	 * interval while adaptive polling backs off
+	 *
+	 * @param itemName
+	 * @return interval in ms, 0 if the item is not polled
+	 */
+	public long getEffectivePollInterval(String itemName) {
+		return scheduler.getEffectiveInterval(itemName);
 	}
 
 	@Override
@@ -114,61 +481,610 @@ public abstract class ACDBBinding extends AbstractActiveBinding<ACDBBindingProvi
 
 	@Override
 	protected void execute() {
+		long start = System.currentTimeMillis();
+		PollScheduler scheduler = this.scheduler;
+		if (schedulerDirty) {
+			schedulerDirty = false;
+			syncScheduler(scheduler, start);
+		}
+
+		// partition due items by the server they are polled from
+		List<PollScheduler.Entry> due = scheduler.advance(start);
+		Map<ServerInfo, PollPartition> partitions = new LinkedHashMap<>();
+		for (PollScheduler.Entry entry : due) {
+			String itemName = entry.itemName;
+			ACDBBindingProvider provider = entry.provider;
+			// let the poll see a coalesced update still waiting for its window
+			DBManager.flushUpdate(provider.getUpdateQuery(itemName));
+			QueryTemplate selectQuery = provider.getSelectQuery(itemName);
+			if (selectQuery != null) {
+				partition(partitions, selectQuery.getServer()).addItem(itemName, selectQuery);
+			}
+			QueryTemplate scanQuery = provider.getScanQuery(itemName);
+			if (scanQuery != null) {
+				partition(partitions, scanQuery.getServer()).addScan(itemName, provider.getScanKey(itemName), scanQuery);
+			}
+		}
+		// change-logs are read every cycle, only new rows are returned
+		for (Map.Entry<String, Map<String, List<String>>> entry : changeLogItems.entrySet()) {
+			ServerInfo server = DBManager.getServer(entry.getKey());
+			if (server != null && server.getChangeLog().isEnabled()) {
+				partition(partitions, server).changeLogItems = entry.getValue();
+			}
+		}
+		if (partitions.isEmpty()) {
+			return;
+		}
+
+		final long deadline = cycleBudget > 0 ? start + cycleBudget : Long.MAX_VALUE;
+		ExecutorService executor = refreshExecutor;
+		if (executor == null || partitions.size() <= 1) {
+			for (PollPartition partition : partitions.values()) {
+				poll(partition, deadline);
+			}
+		} else {
+			List<Callable<Void>> tasks = new ArrayList<>(partitions.size());
+			for (final PollPartition partition : partitions.values()) {
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						poll(partition, deadline);
+						return null;
+					}
+				});
+			}
+			try {
+				executor.invokeAll(tasks);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (RejectedExecutionException e) {
+				logger.debug(getBindingName() + ": refresh workers are shut down");
+			}
+		}
+
+		lastCycleDuration = System.currentTimeMillis() - start;
+		metrics.cycle().record(TimeUnit.MILLISECONDS.toNanos(lastCycleDuration));
+		// the configured interval, getRefreshInterval() is the scheduler tick
+		if (lastCycleDuration > refreshInterval) {
+			logger.warn(getBindingName() + ": refresh cycle took " + lastCycleDuration
+				+ "ms, longer than the refresh interval of " + refreshInterval + "ms");
+		}
+		logger.debug(getBindingName() + ": execute() method is called! (" + due.size() + " items, "
+			+ partitions.size() + " servers, " + lastCycleDuration + "ms)");
+	}
+
+	/**
+	 * bring the scheduler in line with the current bindings
+	 *
+	 * @param scheduler
+	 * @param now
+	 */
+	private void syncScheduler(PollScheduler scheduler, long now) {
+		Set<PollScheduler.Entry> stale = scheduler.getEntries();
+		// providers each polled item is still bound by
+		Map<String, Set<ACDBBindingProvider>> polled = new HashMap<>();
+		Map<String, Map<String, List<String>>> changeLog = new HashMap<>();
+		boolean cached = cacheTtl > 0;
 		for (ACDBBindingProvider provider : this.providers) {
 			for (String itemName : provider.getItemNames()) {
-				String selectSql = provider.getSelectSql(itemName);
-				if (StringUtils.isBlank(selectSql)) {
+				if (provider.getCacheTtl(itemName) > 0) {
+					cached = true;
+				}
+				String changeLogKey = provider.getChangeLogKey(itemName);
+				if (changeLogKey != null) {
+					String serverId = provider.getChangeLogServerId(itemName);
+					Map<String, List<String>> itemsByKey = changeLog.get(serverId);
+					if (itemsByKey == null) {
+						itemsByKey = new HashMap<>();
+						changeLog.put(serverId, itemsByKey);
+					}
+					List<String> itemNames = itemsByKey.get(changeLogKey);
+					if (itemNames == null) {
+						itemNames = new ArrayList<>(1);
+						itemsByKey.put(changeLogKey, itemNames);
+					}
+					itemNames.add(itemName);
+				}
+				if (provider.getSelectQuery(itemName) == null && provider.getScanQuery(itemName) == null) {
 					continue;
 				}
+				long interval = provider.getPollInterval(itemName);
+				if (interval <= 0) {
+					interval = refreshInterval;
+				}
+				if (scheduler.getInterval(itemName, provider) != interval) {
+					scheduler.scheduleStaggered(itemName, provider, interval, now);
+				}
+				Set<ACDBBindingProvider> itemProviders = polled.get(itemName);
+				if (itemProviders == null) {
+					itemProviders = new HashSet<>(2);
+					polled.put(itemName, itemProviders);
+				}
+				itemProviders.add(provider);
+			}
+		}
+		for (PollScheduler.Entry entry : stale) {
+			Set<ACDBBindingProvider> itemProviders = polled.get(entry.itemName);
+			if (itemProviders != null && itemProviders.contains(entry.provider)) {
+				continue;
+			}
+			scheduler.remove(entry.itemName, entry.provider);
+			if (scheduler.getInterval(entry.itemName) == 0) {
+				itemStates.remove(entry.itemName);
+				metrics.removeItem(entry.itemName);
+			}
+		}
+		changeLogItems = changeLog;
+		cacheUsed = cached;
+	}
+
+	/**
+	 * get duration of the last refresh cycle
+	 *
+	 * @return duration in ms
+	 */
+	public long getLastCycleDuration() {
+		return lastCycleDuration;
+	}
+
+	/**
+	 * get latency of the refresh cycle and of the statements of each item
+	 *
+	 * @return metrics, also registered as MBean
+	 */
+	public BindingMetrics getMetrics() {
+		return metrics;
+	}
+
+	private String getMetricsName() {
+		return MBeans.objectName("Binding", getBindingName());
+	}
+
+	private static PollPartition partition(Map<ServerInfo, PollPartition> partitions, ServerInfo server) {
+		PollPartition partition = partitions.get(server);
+		if (partition == null) {
+			partition = new PollPartition(server);
+			partitions.put(server, partition);
+		}
+		return partition;
+	}
+
+	/**
+	 * poll the items of one server, items sharing the same SQL share one execution
+	 *
+	 * @param partition
+	 * @param deadline end of the cycle budget, statements started later are deferred
+	 */
+	private void poll(PollPartition partition, long deadline) {
+		if (partition.server == null) {
+			// unknown serverId, fail only the items of these queries
+			for (PollPartition.SelectGroup select : partition.selects.values()) {
+				for (String itemName : select.itemNames) {
+					metrics.item(itemName).recordError();
+					logger.error(getBindingName() + ":failed to select value of " + itemName
+						+ ". no SQL server found.[" + select.query + "]");
+				}
+			}
+			for (PollPartition.ScanGroup scan : partition.scans.values()) {
+				logger.error(getBindingName() + ":failed to scan table. no SQL server found.[" + scan.query + "]");
+			}
+			return;
+		}
+		if (partition.server.getCircuitBreaker().isOpen()) {
+			logger.debug(getBindingName() + ": skipped " + partition.size() + " items of unavailable server "
+				+ partition.server.getServerId());
+			return;
+		}
+		long stamp = itemStates.stamp();
+		if (partition.changeLogItems != null) {
+			// rows not read in this cycle are returned by the next one
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining > 0) {
+				pollChangeLog(partition.server, partition.changeLogItems, stamp, timeLimit(remaining));
+			}
+		}
+		for (PollPartition.ScanGroup scan : partition.scans.values()) {
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0) {
+				defer(scan.itemsByKey.values());
+				continue;
+			}
+			scan(scan, stamp, timeLimit(remaining));
+		}
+
+		for (PollPartition.SelectGroup select : partition.selects.values()) {
+			if (partition.server.getCircuitBreaker().isOpen()) {
+				// went down during this cycle, the rest would fail anyway
+				break;
+			}
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0) {
+				defer(Collections.singleton(select.itemNames));
+				continue;
+			}
+			select(select, stamp, timeLimit(remaining));
+		}
+		logger.debug(getBindingName() + ": " + (partition.selects.size() + partition.scans.size())
+			+ " queries for " + partition.size() + " items");
+	}
+
+	/**
+	 * @param remaining time in ms left of the cycle budget
+	 * @return upper bound of the query timeout, 0 without budget
+	 */
+	private static long timeLimit(long remaining) {
+		return remaining > Integer.MAX_VALUE ? 0 : remaining;
+	}
+
+	/**
+	 * @return result cache filled by the refresh cycle, null if no item reads it
+	 */
+	private ResultCache cycleCache() {
+		return cacheUsed ? resultCache : null;
+	}
+
+	/**
+	 * keep a select result of the refresh cycle for state updates
+	 *
+	 * @param cache null to keep nothing
+	 * @param version cache version taken before the select
+	 * @param query
+	 * @param state null if no row was found
+	 */
+	private static void cacheResult(ResultCache cache, long version, QueryTemplate query, State state) {
+		if (cache == null) {
+			return;
+		}
+		ServerInfo server = query.getServer();
+		if (server != null) {
+			cache.put(server, query.getSql(), state, version);
+		}
+	}
+
+	/**
+	 * get number of state updates answered from the result cache
+	 *
+	 * @return count
+	 */
+	public long getResultCacheHits() {
+		ResultCache cache = resultCache;
+		return cache != null ? cache.getHits() : 0;
+	}
+
+	/**
+	 * get number of state updates which had to select from the database
+	 *
+	 * @return count
+	 */
+	public long getResultCacheMisses() {
+		ResultCache cache = resultCache;
+		return cache != null ? cache.getMisses() : 0;
+	}
+
+	/**
+	 * poll items in the next cycle instead of this one
+	 *
+	 * @param itemNames
+	 */
+	private void defer(Collection<List<String>> itemNames) {
+		long now = System.currentTimeMillis();
+		PollScheduler scheduler = this.scheduler;
+		int count = 0;
+		for (List<String> names : itemNames) {
+			for (String itemName : names) {
+				scheduler.reschedule(itemName, 0, now);
+				count++;
+			}
+		}
+		deferredPolls.addAndGet(count);
+		logger.debug(getBindingName() + ": cycle budget used up, deferred " + count + " items");
+	}
+
+	/**
+	 * get number of item polls deferred to the next cycle because the cycle budget was used up
+	 *
+	 * @return count
+	 */
+	public long getDeferredPollCount() {
+		return deferredPolls.get();
+	}
+
+	/**
+	 * run one select and update all items sharing it
+	 *
+	 * @param select
+	 * @param stamp item state stamp taken before the query
+	 * @param timeLimit upper bound in ms of the query timeout, 0 for the configured timeout
+	 */
+	private void select(PollPartition.SelectGroup select, long stamp, long timeLimit) {
+		ResultCache cache = cycleCache();
+		long cacheVersion = cache != null ? cache.version() : 0;
+		if (select.itemNames.size() == 1) {
+			String itemName = select.itemNames.get(0);
+			LatencyHistogram latency = metrics.item(itemName);
+			long start = System.nanoTime();
+			try {
+				StateReader reader = stateReader(itemName);
+				State state = DBManager.select(select.query, reader, timeLimit);
+				latency.recordSince(start);
+				cacheResult(cache, cacheVersion, select.query, state);
+				postState(itemName, state == null ? reader.parse(null) : state, stamp);
+			} catch (Exception e) {
+				latency.recordError();
+				logger.error(getBindingName() + ":failed to select value.", e);
+			}
+			return;
+		}
+
+		final List<StateReader> readers = new ArrayList<>(select.itemNames.size());
+		for (String itemName : select.itemNames) {
+			try {
+				readers.add(stateReader(itemName));
+			} catch (Exception e) {
+				readers.add(null);
+				logger.error(getBindingName() + ":failed to update " + itemName, e);
+			}
+		}
+		List<State> states;
+		long start = System.nanoTime();
+		try {
+			states = DBManager.select(select.query, new DBManager.ResultReader<List<State>>() {
+				@Override
+				public List<State> read(ResultSet rs) throws SQLException {
+					List<State> states = new ArrayList<>(readers.size());
+					for (StateReader reader : readers) {
+						states.add(reader == null ? null : reader.read(rs));
+					}
+					return states;
+				}
+			}, timeLimit);
+		} catch (Exception e) {
+			for (String itemName : select.itemNames) {
+				metrics.item(itemName).recordError();
+			}
+			logger.error(getBindingName() + ":failed to select value.", e);
+			return;
+		}
+		// the shared statement counts for each of its items
+		long elapsed = System.nanoTime() - start;
+		for (String itemName : select.itemNames) {
+			metrics.item(itemName).record(elapsed);
+		}
+		for (int i = 0; i < readers.size(); i++) {
+			if (readers.get(i) != null) {
+				// the first item read from the row stands for the shared result
+				cacheResult(cache, cacheVersion, select.query, states == null ? null : states.get(i));
+				break;
+			}
+		}
+		for (int i = 0; i < readers.size(); i++) {
+			StateReader reader = readers.get(i);
+			if (reader != null) {
+				postState(select.itemNames.get(i), states == null ? reader.parse(null) : states.get(i), stamp);
+			}
+		}
+	}
 
-				try {
-					String value = DBManager.select(selectSql);
-					String oldValue = itemValueMap.get(itemName);
-					if (!itemValueMap.containsKey(itemName) || !Objects.equals(value, oldValue)) {
-						Item item = itemRegistry.getItem(itemName);
-						State state = TypeParser.parseState(item.getAcceptedDataTypes(), value);
-						itemValueMap.put(itemName, value);
-						eventPublisher.postUpdate(itemName, state);
-						logger.debug("execute   " + itemName + ":" + value + ":" + oldValue);
+	/**
+	 * apply the rows added to the change-log of a server since the last cycle
+	 *
+	 * @param server
+	 * @param itemsByKey item names by change-log key
+	 * @param stamp item state stamp taken before the query
+	 * @param timeLimit upper bound in ms of the query timeout, 0 for the configured timeout
+	 */
+	private void pollChangeLog(ServerInfo server, final Map<String, List<String>> itemsByKey, final long stamp,
+		long timeLimit) {
+		try {
+			int rows = server.getChangeLog().poll(scanFetchSize, new DBManager.RowHandler() {
+				@Override
+				public void handle(String key, String value) {
+					List<String> itemNames = itemsByKey.get(key);
+					if (itemNames == null) {
+						return;
+					}
+					for (String itemName : itemNames) {
+						try {
+							postValue(itemName, value, stamp);
+						} catch (Exception e) {
+							logger.error(getBindingName() + ":failed to update " + itemName, e);
+						}
 					}
-					logger.debug("old item value: " + itemName + "=" + oldValue);
-					logger.debug(getBindingName() + "selected value: " + itemName + "=" + value);
-				} catch (Exception e) {
-					logger.error(getBindingName() + ":failed to select value.", e);
 				}
+			}, timeLimit);
+			if (rows > 0) {
+				logger.debug(getBindingName() + ": applied " + rows + " change-log rows of " + server.getServerId()
+					+ " up to " + server.getChangeLog().getHighWaterMark());
 			}
+		} catch (Exception e) {
+			logger.error(getBindingName() + ":failed to read change-log of " + server.getServerId(), e);
+		}
+	}
+
+	/**
+	 * run a table scan and update the items of the returned keys
+	 *
+	 * @param scan
+	 * @param stamp item state stamp taken before the query
+	 * @param timeLimit upper bound in ms of the query timeout, 0 for the configured timeout
+	 */
+	private void scan(final PollPartition.ScanGroup scan, final long stamp, long timeLimit) {
+		try {
+			int rows = DBManager.scan(scan.query, scanFetchSize, new DBManager.RowHandler() {
+				@Override
+				public void handle(String key, String value) {
+					List<String> itemNames = scan.itemsByKey.get(key);
+					if (itemNames == null) {
+						return;
+					}
+					for (String itemName : itemNames) {
+						try {
+							postValue(itemName, value, stamp);
+						} catch (Exception e) {
+							logger.error(getBindingName() + ":failed to update " + itemName, e);
+						}
+					}
+				}
+			}, timeLimit);
+			logger.debug(getBindingName() + ": table scan returned " + rows + " rows for " + scan.size + " items");
+		} catch (Exception e) {
+			logger.error(getBindingName() + ":failed to scan table.", e);
+		}
+	}
+
+	/**
+	 * post a selected value if it changed
+	 *
+	 * @param itemName
+	 * @param value
+	 * @param stamp item state stamp taken before the value was read
+	 * @throws Exception
+	 */
+	private void postValue(String itemName, String value, long stamp) throws Exception {
+		State state = itemStates.isUnchanged(itemName, value) ? null : stateReader(itemName).parse(value);
+		postState(itemName, value, state, stamp);
+	}
+
+	/**
+	 * post a State read from a typed column if it changed
+	 *
+	 * @param itemName
+	 * @param state
+	 * @param stamp item state stamp taken before the state was read
+	 */
+	private void postState(String itemName, State state, long stamp) {
+		postState(itemName, state == null ? null : state.toString(), state, stamp);
+	}
+
+	private void postState(String itemName, String value, State state, long stamp) {
+		String oldValue = itemStates.get(itemName);
+		boolean changed = false;
+		ItemStateCache.Result result = itemStates.compareAndSet(itemName, value, stamp);
+		if (result == ItemStateCache.Result.CHANGED) {
+			changed = true;
+			eventPublisher.postUpdate(itemName, state);
+			logger.debug("execute   " + itemName + ":" + value + ":" + oldValue);
+		} else if (result == ItemStateCache.Result.STALE) {
+			logger.debug(getBindingName() + ": dropped stale value of " + itemName + "=" + value);
+		}
+		adapt(itemName, changed);
+		logger.debug("old item value: " + itemName + "=" + oldValue);
+		logger.debug(getBindingName() + "selected value: " + itemName + "=" + value);
+	}
+
+	/**
+	 * get the cached State conversion of an item
+	 *
+	 * @param itemName
+	 * @return
+	 * @throws ItemNotFoundException
+	 */
+	private StateReader stateReader(String itemName) throws ItemNotFoundException {
+		StateReader reader = stateReaders.get(itemName);
+		if (reader == null) {
+			reader = new StateReader(itemRegistry.getItem(itemName));
+			stateReaders.put(itemName, reader);
+		}
+		return reader;
+	}
+
+	/**
+	 * adaptive polling: double the interval of an unchanged item up to adaptiveMax,
+	 * go back to the polling interval on change
+	 *
+	 * @param itemName
+	 * @param changed
+	 */
+	private void adapt(String itemName, boolean changed) {
+		if (!adaptive) {
+			return;
+		}
+		PollScheduler scheduler = this.scheduler;
+		long interval = scheduler.getInterval(itemName);
+		if (interval <= 0) {
+			return;
+		}
+		long min = Math.max(interval, adaptiveMin);
+		long current = scheduler.getEffectiveInterval(itemName);
+		long next = changed ? min : Math.min(Math.max(current, min) * 2, Math.max(min, adaptiveMax));
+		if (next != current) {
+			scheduler.setEffectiveInterval(itemName, next, System.currentTimeMillis());
+			logger.debug(getBindingName() + ": polling interval of " + itemName + " is now " + next + "ms");
 		}
-		logger.debug(getBindingName() + ": execute() method is called!");
 	}
 
 	@Override
-	protected void internalReceiveUpdate(String itemName, State newState) {
+	protected void internalReceiveUpdate(final String itemName, State newState) {
 		logger.debug("internalReceiveUpdate({},{})", itemName, newState);
-		for (ACDBBindingProvider provider : this.providers) {
-			selectDB(itemName, provider);
-		}
+		dispatch(itemName, new Runnable() {
+			@Override
+			public void run() {
+				handleUpdate(itemName);
+			}
+		});
 	}
 
-	protected void internalReceiveCommand(String itemName, Command command) {
+	protected void internalReceiveCommand(final String itemName, final Command command) {
 		logger.debug("internalReceiveCommand({},{})", itemName, command);
-
-		for (ACDBBindingProvider provider : this.providers) {
-			String commandValue = command.toString();
-			if (commandValue.indexOf("&") == -1) {
-				commandValue = "time=" + commandValue + "&" + "value=" + commandValue;
+		adapt(itemName, true);
+		dispatch(itemName, new Runnable() {
+			@Override
+			public void run() {
+				handleCommand(itemName, command);
 			}
-			logger.debug("### commandValue:{}", commandValue);
-			logger.debug("### itemName:{}", itemName);
-			logger.debug("### insertSql:{}", provider.getInsertSql(itemName));
-			logger.debug("### updateSql:{}", provider.getUpdateSql(itemName));
+		});
+	}
+
+	/**
+	 * run work of an item on its command lane, or right away without lanes
+	 *
+	 * @param itemName
+	 * @param task
+	 */
+	private void dispatch(String itemName, Runnable task) {
+		CommandDispatcher dispatcher = commandDispatcher;
+		if (dispatcher == null) {
+			task.run();
+		} else {
+			dispatcher.dispatch(itemName, task);
+		}
+	}
+
+	private void handleUpdate(String itemName) {
+		ItemRoute[] itemRoutes = routes.get(itemName);
+		if (itemRoutes == null) {
+			return;
+		}
+		for (ItemRoute route : itemRoutes) {
+			selectDB(itemName, route);
+		}
+	}
+
+	private void handleCommand(String itemName, Command command) {
+		ItemRoute[] itemRoutes = routes.get(itemName);
+		if (itemRoutes == null) {
+			return;
+		}
+		String commandValue = command.toString();
+		// a name=value&... list is given as text, its values are not typed
+		DBManager.ValueType type = DBManager.ValueType.STRING;
+		if (commandValue.indexOf("&") == -1) {
+			commandValue = "time=" + commandValue + "&" + "value=" + commandValue;
+			type = valueType(command);
+		}
+		logger.debug("### commandValue:{}", commandValue);
+		logger.debug("### itemName:{}", itemName);
+		for (ItemRoute route : itemRoutes) {
+			logger.debug("### insertSql:{}", route.insertSql);
+			logger.debug("### updateSql:{}", route.updateSql);
 
-			if(provider.getInsertSql(itemName) != null) {
-				insertDB(itemName, provider, commandValue);
+			if (route.insertSql != null) {
+				insertDB(itemName, route.insertQuery, commandValue, type);
 				continue;
 			}
-			if(provider.getUpdateSql(itemName) != null) {
-				updateDB(itemName, provider, commandValue);
-			}			
+			if (route.updateSql != null) {
+				updateDB(itemName, route.updateQuery, commandValue, type);
+			}
 		}
 	}
 
@@ -183,7 +1099,7 @@ public abstract class ACDBBinding extends AbstractActiveBinding<ACDBBindingProvi
 		}
 
 		// read DB Server connection Information
-		DBManager.serverCache = new HashMap<String, ServerInfo>();
+		Map<String, ServerInfo> servers = new HashMap<String, ServerInfo>();
 		Enumeration<String> keys = config.keys();
 		while (keys.hasMoreElements()) {
 			String key = (String) keys.nextElement();
@@ -197,15 +1113,16 @@ public abstract class ACDBBinding extends AbstractActiveBinding<ACDBBindingProvi
 			matcher.find();
 
 			String serverId = matcher.group(1);
-			ServerInfo server = DBManager.serverCache.get(serverId);
+			ServerInfo server = servers.get(serverId);
 			if (server == null) {
 				server = new ServerInfo(serverId);
-				DBManager.serverCache.put(serverId, server);
+				servers.put(serverId, server);
 				logger.debug("Created new DBserver Info " + serverId);
 			}
 
 			String configKey = matcher.group(2);
 			String value = (String) config.get(key);
+			server.define(configKey, value);
 
 			if ("url".equals(configKey)) {
 				server.setUrl(value);
@@ -213,45 +1130,458 @@ public abstract class ACDBBinding extends AbstractActiveBinding<ACDBBindingProvi
 				server.setUser(value);
 			} else if ("password".equals(configKey)) {
 				server.setPassword(value);
+			} else if (configKey.startsWith(POOL_PREFIX)) {
+				configurePool(server, key, value);
+			} else if (configKey.startsWith(WRITE_BEHIND_PREFIX)) {
+				configureWriteBehind(server, key, value);
+			} else if (configKey.startsWith(BREAKER_PREFIX)) {
+				configureBreaker(server, key, value);
+			} else if (QUERY_TIMEOUT.equals(configKey)) {
+				server.setQueryTimeout(parseLong(key, value));
+			} else if (COALESCE_WINDOW.equals(configKey)) {
+				server.getCoalescer().setWindow(parseLong(key, value));
+			} else if (CHANGELOG.equals(configKey)) {
+				server.getChangeLog().setSql(value);
+			} else if (CHANGELOG_START.equals(configKey)) {
+				server.getChangeLog().setStartSql(value);
 			} else {
 				throw new ConfigurationException(configKey, "the given configKey '" + configKey
 					+ "' is unknown");
 			}
 		}
 		// read defult DBServer connection information
-		String serverId = "DefultServer";
+		String serverId = DBManager.DEFAULT_SERVER_ID;
 		ServerInfo server = new ServerInfo(serverId);
 		server.setUrl((String) config.get("url"));
 		server.setUser((String) config.get("user"));
 		server.setPassword((String) config.get("password"));
+		server.define("url", server.getUrl());
+		server.define("user", server.getUser());
+		server.define("password", server.getPassword());
+		keys = config.keys();
+		while (keys.hasMoreElements()) {
+			String key = keys.nextElement();
+			boolean serverKey = true;
+			if (key.startsWith(POOL_PREFIX)) {
+				configurePool(server, key, (String) config.get(key));
+			} else if (key.startsWith(WRITE_BEHIND_PREFIX)) {
+				configureWriteBehind(server, key, (String) config.get(key));
+			} else if (key.startsWith(BREAKER_PREFIX)) {
+				configureBreaker(server, key, (String) config.get(key));
+			} else if (QUERY_TIMEOUT.equals(key)) {
+				server.setQueryTimeout(parseLong(key, (String) config.get(key)));
+			} else if (COALESCE_WINDOW.equals(key)) {
+				server.getCoalescer().setWindow(parseLong(key, (String) config.get(key)));
+			} else if (CHANGELOG.equals(key)) {
+				server.getChangeLog().setSql((String) config.get(key));
+			} else if (CHANGELOG_START.equals(key)) {
+				server.getChangeLog().setStartSql((String) config.get(key));
+			} else {
+				serverKey = false;
+			}
+			if (serverKey) {
+				server.define(key, (String) config.get(key));
+			}
+		}
 
-		DBManager.serverCache.put("DefultServer", server);
+		servers.put(serverId, server);
 
+		// binding settings are read into locals, a rejected value leaves the running configuration alone
+		long newRefreshInterval = refreshInterval;
 		String refreshIntervalString = (String) config.get("refresh");
 		if (StringUtils.isNotBlank(refreshIntervalString)) {
-			refreshInterval = Long.parseLong(refreshIntervalString);
+			newRefreshInterval = parseLong("refresh", refreshIntervalString);
+		}
+
+		String tickString = (String) config.get("tick");
+		long newTick = TimeUnit.SECONDS.toMillis(1);
+		if (StringUtils.isNotBlank(tickString)) {
+			newTick = parseLong("tick", tickString);
+		}
+
+		boolean newAdaptive = Boolean.parseBoolean((String) config.get("adaptive"));
+		String adaptiveMinString = (String) config.get("adaptiveMin");
+		long newAdaptiveMin = 0;
+		if (StringUtils.isNotBlank(adaptiveMinString)) {
+			newAdaptiveMin = parseLong("adaptiveMin", adaptiveMinString);
+		}
+		String adaptiveMaxString = (String) config.get("adaptiveMax");
+		long newAdaptiveMax = TimeUnit.MINUTES.toMillis(10);
+		if (StringUtils.isNotBlank(adaptiveMaxString)) {
+			newAdaptiveMax = parseLong("adaptiveMax", adaptiveMaxString);
+		}
+
+		String scanFetchSizeString = (String) config.get("scanFetchSize");
+		int newScanFetchSize = 500;
+		if (StringUtils.isNotBlank(scanFetchSizeString)) {
+			newScanFetchSize = parseInt("scanFetchSize", scanFetchSizeString);
+		}
+
+		String cycleBudgetString = (String) config.get("cycleBudget");
+		long newCycleBudget = 0;
+		if (StringUtils.isNotBlank(cycleBudgetString)) {
+			newCycleBudget = parseLong("cycleBudget", cycleBudgetString);
+		}
+
+		String parallelismString = (String) config.get("parallelism");
+		int newParallelism = 1;
+		if (StringUtils.isNotBlank(parallelismString)) {
+			newParallelism = parseInt("parallelism", parallelismString);
+		}
+		ExecutionStrategy strategy = createExecutionStrategy((String) config.get("executor"));
+
+		String commandLanesString = (String) config.get("commandLanes");
+		int newCommandLanes = 4;
+		if (StringUtils.isNotBlank(commandLanesString)) {
+			newCommandLanes = parseInt("commandLanes", commandLanesString);
+		}
+		String commandQueueSizeString = (String) config.get("commandQueueSize");
+		int newCommandQueueSize = 1000;
+		if (StringUtils.isNotBlank(commandQueueSizeString)) {
+			newCommandQueueSize = parseInt("commandQueueSize", commandQueueSizeString);
+		}
+		String commandOverflowString = (String) config.get("commandOverflow");
+		CommandDispatcher.OverflowPolicy newCommandOverflow = CommandDispatcher.OverflowPolicy.BLOCK;
+		if (StringUtils.isNotBlank(commandOverflowString)) {
+			try {
+				newCommandOverflow = CommandDispatcher.OverflowPolicy.valueOf(StringUtils.upperCase(commandOverflowString));
+			} catch (IllegalArgumentException e) {
+				throw new ConfigurationException("commandOverflow", "the given value '" + commandOverflowString
+					+ "' is invalid");
+			}
+		}
+
+		String cacheTtlString = (String) config.get("cacheTtl");
+		long newCacheTtl = 0;
+		if (StringUtils.isNotBlank(cacheTtlString)) {
+			newCacheTtl = parseLong("cacheTtl", cacheTtlString);
+		}
+		String cacheSizeString = (String) config.get("cacheSize");
+		int newCacheSize = 1000;
+		if (StringUtils.isNotBlank(cacheSizeString)) {
+			newCacheSize = parseInt("cacheSize", cacheSizeString);
+		}
+
+		boolean newLazyConnect = Boolean.parseBoolean((String) config.get("lazyConnect"));
+		String startupTimeoutString = (String) config.get("startupTimeout");
+		long newStartupTimeout = TimeUnit.SECONDS.toMillis(30);
+		if (StringUtils.isNotBlank(startupTimeoutString)) {
+			newStartupTimeout = parseLong("startupTimeout", startupTimeoutString);
+		}
+
+		// all settings are valid, apply them at once
+		refreshInterval = newRefreshInterval;
+		tick = newTick;
+		adaptive = newAdaptive;
+		adaptiveMin = newAdaptiveMin;
+		adaptiveMax = newAdaptiveMax;
+		scanFetchSize = newScanFetchSize;
+		cycleBudget = newCycleBudget;
+		parallelism = newParallelism;
+		commandLanes = newCommandLanes;
+		commandQueueSize = newCommandQueueSize;
+		commandOverflow = newCommandOverflow;
+		cacheTtl = newCacheTtl;
+		cacheSize = newCacheSize;
+		lazyConnect = newLazyConnect;
+		startupTimeout = newStartupTimeout;
+		scheduler = new PollScheduler(getRefreshInterval(), WHEEL_SIZE, System.currentTimeMillis());
+		schedulerDirty = true;
+		resultCache = cacheSize > 0 ? new ResultCache(cacheSize) : null;
+		DBManager.addWriteListener(cacheInvalidator);
+
+		executionStrategy = strategy;
+		DBManager.setExecutionStrategy(executionStrategy);
+		// handle queued commands, servers of the previous configuration are replaced below
+		shutdownCommandDispatcher();
+		if (commandLanes > 0) {
+			commandDispatcher = new CommandDispatcher(getBindingName(), commandLanes, commandQueueSize,
+				commandOverflow, executionStrategy);
+		}
+		shutdownRefreshExecutor();
+		if (parallelism > 1) {
+			refreshExecutor = executionStrategy.newExecutor(getBindingName() + " refresh worker", parallelism);
 		}
 
 		try {
-			for (Map.Entry<String, ServerInfo> mapI : DBManager.serverCache.entrySet()) {
-				ServerInfo serverI = mapI.getValue();
-				serverI.setDriverClassName(getDriverClassName());
-				if (StringUtils.isBlank(serverI.getUrl())
-					|| StringUtils.isBlank(serverI.getUser())
-					|| StringUtils.isBlank(serverI.getPassword())) {
-					logger.warn("more information needed:" + serverI.toString());
-					continue;
-				}
-				serverI.openConnection();
+			DBManager.loadDriver(getDriverClassName());
+		} catch (ClassNotFoundException e) {
+			logger.error(getBindingName() + ":failed to load DB driver " + getDriverClassName(), e);
+		}
+		// keep running servers whose settings did not change, with their connections and caches
+		List<ServerInfo> startable = new ArrayList<>(servers.size());
+		for (Map.Entry<String, ServerInfo> mapI : servers.entrySet()) {
+			ServerInfo serverI = mapI.getValue();
+			serverI.setDriverClassName(getDriverClassName());
+			ServerInfo running = DBManager.getServer(mapI.getKey());
+			if (running != null && running.isSameDefinition(serverI)) {
+				mapI.setValue(running);
+				logger.debug("kept unchanged DBserver " + running.getServerId());
+				continue;
 			}
-		} catch (Exception e) {
-			logger.error(getBindingName() + ":failed to connect DB.", e);
+			if (StringUtils.isBlank(serverI.getUrl())
+				|| StringUtils.isBlank(serverI.getUser())
+				|| StringUtils.isBlank(serverI.getPassword())) {
+				logger.warn("more information needed:" + serverI.toString());
+				continue;
+			}
+			serverI.getWriteBehind().start();
+			startable.add(serverI);
 		}
+		startPools(startable);
+		// publish the complete map at once, replaced servers are closed afterwards
+		DBManager.setServerCache(servers);
 
+		MBeans.register(getMetricsName(), metrics);
 		setProperlyConfigured(true);
 		logger.debug(getBindingName() + ":updated(config) is called!");
 	}
 
+	/**
+	 * start the connection pools, opening their first connections in parallel
+	 * unless lazyConnect is set, waiting at most startupTimeout, also for a single server
+	 *
+	 * @param servers
+	 */
+	private void startPools(List<ServerInfo> servers) {
+		if (lazyConnect) {
+			// nothing is connected yet, so nothing blocks
+			for (ServerInfo server : servers) {
+				server.getPool().start(false);
+			}
+			return;
+		}
+		if (servers.isEmpty()) {
+			return;
+		}
+
+		ExecutorService warmUp = executionStrategy.newExecutor(getBindingName() + " connection warm-up", Math.min(
+			servers.size(), WARM_UP_THREADS));
+		List<Future<?>> started = new ArrayList<>(servers.size());
+		for (final ServerInfo server : servers) {
+			started.add(warmUp.submit(new Runnable() {
+				@Override
+				public void run() {
+					server.getPool().start();
+				}
+			}));
+		}
+		// connections still being opened at the timeout are left to finish in the background
+		warmUp.shutdown();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(startupTimeout);
+		int pending = 0;
+		for (int i = 0; i < started.size(); i++) {
+			try {
+				started.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				pending++;
+			} catch (ExecutionException e) {
+				logger.error(getBindingName() + ":failed to connect DB " + servers.get(i).getServerId(), e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+		if (pending > 0) {
+			logger.warn(getBindingName() + ": " + pending + " of " + servers.size() + " servers not connected within "
+				+ startupTimeout + "ms, continuing in the background");
+		}
+	}
+
+	/**
+	 * stop the workers of the parallel refresh cycle
+	 */
+	private void shutdownRefreshExecutor() {
+		if (refreshExecutor != null) {
+			refreshExecutor.shutdown();
+			refreshExecutor = null;
+		}
+	}
+
+	/**
+	 * create the execution strategy of the executor setting
+	 *
+	 * @param name platform or virtual, blank for platform
+	 * @return
+	 * @throws ConfigurationException
+	 */
+	private ExecutionStrategy createExecutionStrategy(String name) throws ConfigurationException {
+		if (StringUtils.isBlank(name) || PlatformExecutionStrategy.NAME.equalsIgnoreCase(name)) {
+			return new PlatformExecutionStrategy();
+		}
+		if (VirtualThreadExecutionStrategy.NAME.equalsIgnoreCase(name)) {
+			if (VirtualThreadExecutionStrategy.isSupported()) {
+				return new VirtualThreadExecutionStrategy();
+			}
+			logger.warn(getBindingName() + ": virtual threads are not supported by this runtime, using platform threads");
+			return new PlatformExecutionStrategy();
+		}
+		throw new ConfigurationException("executor", "the given value '" + name + "' is invalid");
+	}
+
+	/**
+	 * handle the commands still queued and stop the command lanes
+	 */
+	private void shutdownCommandDispatcher() {
+		CommandDispatcher dispatcher = commandDispatcher;
+		if (dispatcher != null) {
+			commandDispatcher = null;
+			dispatcher.close();
+		}
+	}
+
+	/**
+	 * get number of commands and updates waiting in the command lanes
+	 *
+	 * @return queue depth, 0 without lanes
+	 */
+	public int getCommandQueueDepth() {
+		CommandDispatcher dispatcher = commandDispatcher;
+		return dispatcher != null ? dispatcher.getDepth() : 0;
+	}
+
+	/**
+	 * get highest number of commands and updates waiting in the command lanes
+	 *
+	 * @return queue depth, 0 without lanes
+	 */
+	public int getCommandQueueMaxDepth() {
+		CommandDispatcher dispatcher = commandDispatcher;
+		return dispatcher != null ? dispatcher.getMaxDepth() : 0;
+	}
+
+	/**
+	 * get number of commands and updates discarded because their lane was full
+	 *
+	 * @return count, 0 without lanes
+	 */
+	public long getCommandDroppedCount() {
+		CommandDispatcher dispatcher = commandDispatcher;
+		return dispatcher != null ? dispatcher.getDroppedCount() : 0;
+	}
+
+	/**
+	 * apply a connection pool setting
+	 *
+	 * @param server
+	 * @param configKey [serverId.]pool.xxx
+	 * @param value
+	 * @throws ConfigurationException
+	 */
+	private void configurePool(ServerInfo server, String configKey, String value)
+		throws ConfigurationException {
+		ConnectionPool pool = server.getPool();
+		String option = StringUtils.substringAfterLast(configKey, ".");
+		if ("minSize".equals(option)) {
+			pool.setMinSize(parseInt(configKey, value));
+		} else if ("maxSize".equals(option)) {
+			pool.setMaxSize(parseInt(configKey, value));
+		} else if ("validationTimeout".equals(option)) {
+			pool.setValidationTimeout(parseLong(configKey, value));
+		} else if ("idleTimeout".equals(option)) {
+			pool.setIdleTimeout(parseLong(configKey, value));
+		} else if ("maxLifetime".equals(option)) {
+			pool.setMaxLifetime(parseLong(configKey, value));
+		} else if ("borrowTimeout".equals(option)) {
+			pool.setBorrowTimeout(parseLong(configKey, value));
+		} else if ("statementCacheSize".equals(option)) {
+			pool.setStatementCacheSize(parseInt(configKey, value));
+		} else {
+			throw new ConfigurationException(configKey, "the given configKey '" + configKey
+				+ "' is unknown");
+		}
+		if (pool.getMinSize() > pool.getMaxSize()) {
+			pool.setMaxSize(pool.getMinSize());
+		}
+	}
+
+	/**
+	 * apply an asynchronous insert setting
+	 *
+	 * @param server
+	 * @param configKey [serverId.]writeBehind.xxx
+	 * @param value
+	 * @throws ConfigurationException
+	 */
+	private void configureWriteBehind(ServerInfo server, String configKey, String value)
+		throws ConfigurationException {
+		WriteBehindQueue writeBehind = server.getWriteBehind();
+		String option = StringUtils.substringAfterLast(configKey, ".");
+		if ("enabled".equals(option)) {
+			writeBehind.setEnabled(Boolean.parseBoolean(value));
+		} else if ("batchSize".equals(option)) {
+			writeBehind.setBatchSize(parseInt(configKey, value));
+		} else if ("flushInterval".equals(option)) {
+			writeBehind.setFlushInterval(parseLong(configKey, value));
+		} else if ("queueSize".equals(option)) {
+			writeBehind.setQueueSize(parseInt(configKey, value));
+		} else if ("overflow".equals(option)) {
+			try {
+				writeBehind.setOverflowPolicy(WriteBehindQueue.OverflowPolicy.valueOf(StringUtils.upperCase(value)));
+			} catch (IllegalArgumentException | NullPointerException e) {
+				throw new ConfigurationException(configKey, "the given value '" + value + "' is invalid");
+			}
+		} else {
+			throw new ConfigurationException(configKey, "the given configKey '" + configKey
+				+ "' is unknown");
+		}
+	}
+
+	/**
+	 * apply a circuit breaker setting
+	 *
+	 * @param server
+	 * @param configKey [serverId.]breaker.xxx
+	 * @param value
+	 * @throws ConfigurationException
+	 */
+	private void configureBreaker(ServerInfo server, String configKey, String value)
+		throws ConfigurationException {
+		CircuitBreaker breaker = server.getCircuitBreaker();
+		String option = StringUtils.substringAfterLast(configKey, ".");
+		if ("failureThreshold".equals(option)) {
+			breaker.setFailureThreshold(parseInt(configKey, value));
+		} else if ("openDuration".equals(option)) {
+			breaker.setOpenDuration(parseLong(configKey, value));
+		} else if ("maxOpenDuration".equals(option)) {
+			breaker.setMaxOpenDuration(parseLong(configKey, value));
+		} else {
+			throw new ConfigurationException(configKey, "the given configKey '" + configKey
+				+ "' is unknown");
+		}
+		if (breaker.getMaxOpenDuration() < breaker.getOpenDuration()) {
+			breaker.setMaxOpenDuration(breaker.getOpenDuration());
+		}
+	}
+
+	/**
+	 * @param configKey named in the exception
+	 * @param value
+	 * @return value as long
+	 * @throws ConfigurationException value is no number
+	 */
+	private static long parseLong(String configKey, String value) throws ConfigurationException {
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new ConfigurationException(configKey, "the given value '" + value + "' is not a number");
+		}
+	}
+
+	/**
+	 * @param configKey named in the exception
+	 * @param value
+	 * @return value as int
+	 * @throws ConfigurationException value is no number
+	 */
+	private static int parseInt(String configKey, String value) throws ConfigurationException {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new ConfigurationException(configKey, "the given value '" + value + "' is not a number");
+		}
+	}
+
 	/**
 	 * set item registry
 	 *
@@ -288,55 +1618,90 @@ public abstract class ACDBBinding extends AbstractActiveBinding<ACDBBindingProvi
 		ACDBBinding.eventPublisher = null;
 	}
 
-	private void updateDB(String itemName, ACDBBindingProvider provider, String commandValue) {
-		String updateSql = provider.getUpdateSql(itemName);
+	/**
+	 * @param command
+	 * @return how the value of the command is bound to statements
+	 */
+	private static DBManager.ValueType valueType(Command command) {
+		if (command instanceof DecimalType) {
+			return DBManager.ValueType.NUMBER;
+		}
+		if (command instanceof DateTimeType) {
+			return DBManager.ValueType.TIMESTAMP;
+		}
+		return DBManager.ValueType.STRING;
+	}
 
-		String oldValue = itemValueMap.get(itemName);
-		itemValueMap.put(itemName, commandValue);
+	private void updateDB(String itemName, QueryTemplate updateQuery, String commandValue, DBManager.ValueType type) {
+		String oldValue = itemStates.put(itemName, commandValue);
 
-		if (StringUtils.isBlank(updateSql)) {
+		if (updateQuery == null) {
 			return;
 		}
 		if (!StringUtils.equals(commandValue, oldValue)) {
+			LatencyHistogram latency = metrics.item(itemName);
+			long start = System.nanoTime();
 			try {
-				DBManager.update(updateSql, commandValue);
+				DBManager.update(updateQuery, commandValue, type);
+				latency.recordSince(start);
 			} catch (Exception e) {
+				latency.recordError();
 				logger.error(getBindingName() + ":fail to update", e);
 			}
 		}
 	}
 
-	private void insertDB(String itemName, ACDBBindingProvider provider, String commandValue) {
-		String insertSql = provider.getInsertSql(itemName);
-
-		if (StringUtils.isBlank(insertSql)) {
+	private void insertDB(String itemName, QueryTemplate insertQuery, String commandValue, DBManager.ValueType type) {
+		if (insertQuery == null) {
 			return;
 		}
 
+		LatencyHistogram latency = metrics.item(itemName);
+		long start = System.nanoTime();
 		try {
-			DBManager.insert(insertSql, commandValue);
+			DBManager.insert(insertQuery, commandValue, type);
+			latency.recordSince(start);
 		} catch (Exception e) {
+			latency.recordError();
 			logger.error(getBindingName() + ":failed to update", e);
 		}
 	}
 
-	private void selectDB(String itemName, ACDBBindingProvider provider) {
-		String selectSql = provider.getSelectSql(itemName);
+	private void selectDB(String itemName, ItemRoute route) {
+		QueryTemplate selectQuery = route.selectQuery;
 
-		if (StringUtils.isBlank(selectSql)) {
+		if (selectQuery == null) {
 			return;
 		}
 
+		long ttl = route.cacheTtl;
+		if (ttl <= 0) {
+			ttl = cacheTtl;
+		}
+		ResultCache cache = resultCache;
+		ServerInfo server = selectQuery.getServer();
+		LatencyHistogram latency = metrics.item(itemName);
+		long start = System.nanoTime();
 		try {
-			String value = DBManager.select(selectSql);
-			String oldValue = itemValueMap.get(itemName);
-			if (!itemValueMap.containsKey(itemName) || !Objects.equals(value, oldValue)) {
-				Item item = itemRegistry.getItem(itemName);
-				State state = TypeParser.parseState(item.getAcceptedDataTypes(), value);
-				itemValueMap.put(itemName, value.toString());
-				eventPublisher.postUpdate(itemName, state);
+			boolean flushed = DBManager.flushUpdate(route.updateQuery);
+			long stamp = itemStates.stamp();
+			StateReader reader = stateReader(itemName);
+			long version = cache != null ? cache.version() : 0;
+			if (ttl > 0 && cache != null && server != null && !flushed) {
+				ResultCache.CachedResult cached = cache.get(server, selectQuery.getSql(), ttl);
+				if (cached != null && reader.accepts(cached.state)) {
+					postState(itemName, cached.state == null ? reader.parse(null) : cached.state, stamp);
+					return;
+				}
+			}
+			State state = DBManager.select(selectQuery, reader);
+			latency.recordSince(start);
+			if (ttl > 0 && cache != null && server != null) {
+				cache.put(server, selectQuery.getSql(), state, version);
 			}
+			postState(itemName, state == null ? reader.parse(null) : state, stamp);
 		} catch (Exception e) {
+			latency.recordError();
 			logger.error(getBindingName() + ":failed to select data", e);
 		}
 	}
@@ -9,7 +9,10 @@
 
 package org.openhab.binding.ACDBCommon.internal;
 
+import org.apache.commons.lang3.StringUtils;
 import org.openhab.binding.ACDBCommon.ACDBBindingProvider;
+import org.openhab.binding.ACDBCommon.db.DBManager;
+import org.openhab.binding.ACDBCommon.db.QueryTemplate;
 import org.openhab.core.binding.BindingConfig;
 import org.openhab.core.items.Item;
 import org.openhab.model.item.binding.AbstractGenericBindingProvider;
@@ -17,6 +20,7 @@ import org.openhab.model.item.binding.BindingConfigParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -35,11 +39,34 @@ public abstract class ACDBGenericBindingProvider extends AbstractGenericBindingP
 	 * logger 
 	 */
 	private static final Logger logger = LoggerFactory.getLogger(ACDBBinding.class);
+	/**
+	 * &lt;[select] &gt;[update] &gt;&gt;[insert] &lt;@[key|table scan] &lt;~[[serverId:]change-log key]
+	 */
 	private static final Pattern BASE_CONFIG_PATTERN = Pattern
-		.compile("(<|>>|>)\\[(.*?)\\](\\s|,|$)");
+		.compile("(<@|<~|<|>>|>)\\[(.*?)\\](\\s|,|$)");
 
 	private static final Pattern BASE_CONFIG_PATTERN_W_COMMAND = Pattern
-		.compile("(<|>>|>)\\[([a-zA-Z]+):(.*?)\\](\\s|,|$)");
+		.compile("(<@|<~|<|>>|>)\\[([a-zA-Z]+):(.*?)\\](\\s|,|$)");
+
+	/**
+	 * polling interval in front of select SQL, e.g. &lt;[5s:serverId:SELECT ...]
+	 */
+	private static final Pattern INTERVAL_PATTERN = Pattern.compile("^(\\d+)(ms|s|m|h):(.*)$", Pattern.DOTALL);
+
+	/**
+	 * TTL of cached results in front of the select SQL, e.g. &lt;[5s:cache=1s:serverId:SELECT ...]
+	 */
+	private static final Pattern CACHE_TTL_PATTERN = Pattern.compile("^cache=(\\d+)(ms|s|m|h):(.*)$", Pattern.DOTALL);
+
+	/**
+	 * time limit of the statement in front of the SQL, e.g. &lt;[timeout=2s:serverId:SELECT ...]
+	 */
+	private static final Pattern TIMEOUT_PATTERN = Pattern.compile("^timeout=(\\d+)(ms|s|m|h):(.*)$", Pattern.DOTALL);
+
+	/**
+	 * separator of item key and SQL of a table scan
+	 */
+	private static final String SCAN_KEY_SEPARATOR = "|";
 
 		@Override
 	public void validateItemType(Item item, String bindingConfig)
@@ -64,14 +91,22 @@ public abstract class ACDBGenericBindingProvider extends AbstractGenericBindingP
 				logger.debug("### G3:{}", sql);
 
                         	if (direction.equals("<")) {
-                                	config.selectSql = sql;
+                                	sql = parseCacheTtl(config, parseInterval(config, sql));
+                                	config.selectSql = stripTimeout(sql);
+                                	config.selectQuery = compile(sql);
                         	} else if (direction.equals(">")) {
-                                	config.updateSql = sql;
+                                	config.updateSql = stripTimeout(sql);
+                                	config.updateQuery = compile(sql);
                         	} else if (direction.equals(">>")) {
-                                	config.insertSql = sql;
+                                	config.insertSql = stripTimeout(sql);
+                                	config.insertQuery = compile(sql);
+                        	} else if (direction.equals("<@")) {
+                                	parseScan(config, sql);
+                        	} else if (direction.equals("<~")) {
+                                	parseChangeLog(config, command + ":" + sql);
                         	} else {
                                 	throw new BindingConfigParseException(
-                                        	"Unknown command given! Configuration must start with '<' or '>' or '>>' ");
+                                        	"Unknown command given! Configuration must start with '<' or '>' or '>>' or '<@' or '<~' ");
                         	}
                 	}
 		} else {
@@ -85,14 +120,22 @@ public abstract class ACDBGenericBindingProvider extends AbstractGenericBindingP
 					logger.debug("### G2:{}", sql);
 
                                 	if (direction.equals("<")) {
-                                        	config.selectSql = sql;
+                                        	sql = parseCacheTtl(config, parseInterval(config, sql));
+                                        	config.selectSql = stripTimeout(sql);
+                                        	config.selectQuery = compile(sql);
                                 	} else if (direction.equals(">")) {
-                                        	config.updateSql = sql;
+                                        	config.updateSql = stripTimeout(sql);
+                                        	config.updateQuery = compile(sql);
                                 	} else if (direction.equals(">>")) {
-                                        	config.insertSql = sql;
+                                        	config.insertSql = stripTimeout(sql);
+                                        	config.insertQuery = compile(sql);
+                                	} else if (direction.equals("<@")) {
+                                        	parseScan(config, sql);
+                                	} else if (direction.equals("<~")) {
+                                        	parseChangeLog(config, sql);
                                 	} else {
                                         	throw new BindingConfigParseException(
-                                                	"Unknown command given! Configuration must start with '<' or '>' or '>>' ");
+                                                	"Unknown command given! Configuration must start with '<' or '>' or '>>' or '<@' or '<~' ");
                                 	}
                         	}
 			} else {
@@ -103,6 +146,115 @@ public abstract class ACDBGenericBindingProvider extends AbstractGenericBindingP
 		addBindingConfig(item, config);
 	}
 
+	/**
+	 * parse key|[serverId:]SQL of a table scan, the SQL returns (item_key, value) rows
+	 *
+	 * @param config
+	 * @param scan
+	 * @throws BindingConfigParseException
+	 */
+	private void parseScan(ACDBBindingConfig config, String scan) throws BindingConfigParseException {
+		String key = StringUtils.substringBefore(scan, SCAN_KEY_SEPARATOR);
+		String sql = StringUtils.substringAfter(scan, SCAN_KEY_SEPARATOR);
+		if (StringUtils.isBlank(key) || StringUtils.isBlank(sql)) {
+			throw new BindingConfigParseException("table scan '" + scan
+				+ "' must be given as key" + SCAN_KEY_SEPARATOR + "SQL");
+		}
+		config.scanKey = key;
+		config.scanQuery = compile(parseInterval(config, sql));
+	}
+
+	/**
+	 * parse [serverId:]key of an item updated from a change-log
+	 *
+	 * @param config
+	 * @param changeLog
+	 * @throws BindingConfigParseException
+	 */
+	private void parseChangeLog(ACDBBindingConfig config, String changeLog) throws BindingConfigParseException {
+		String serverId = DBManager.DEFAULT_SERVER_ID;
+		String key = changeLog;
+		if (changeLog.indexOf(':') >= 0) {
+			serverId = StringUtils.substringBefore(changeLog, ":");
+			key = StringUtils.substringAfter(changeLog, ":");
+		}
+		if (StringUtils.isBlank(serverId) || StringUtils.isBlank(key)) {
+			throw new BindingConfigParseException("change-log binding '" + changeLog
+				+ "' must be given as [serverId:]key");
+		}
+		config.changeLogServerId = serverId;
+		config.changeLogKey = key;
+	}
+
+	/**
+	 * parse the optional polling interval in front of the SQL
+	 *
+	 * @param config
+	 * @param sql [interval:][cache=ttl:][timeout=limit:][serverId:]SQL, interval is a number with unit ms, s, m or h
+	 * @return [cache=ttl:][timeout=limit:][serverId:]SQL
+	 */
+	private String parseInterval(ACDBBindingConfig config, String sql) {
+		Matcher matcher = INTERVAL_PATTERN.matcher(sql);
+		if (!matcher.matches()) {
+			return sql;
+		}
+		config.pollInterval = toMillis(Long.parseLong(matcher.group(1)), matcher.group(2));
+		return matcher.group(3);
+	}
+
+	/**
+	 * parse the optional TTL of cached results in front of the select SQL
+	 *
+	 * @param config
+	 * @param sql [cache=ttl:][timeout=limit:][serverId:]SQL, ttl is a number with unit ms, s, m or h
+	 * @return [timeout=limit:][serverId:]SQL
+	 */
+	private String parseCacheTtl(ACDBBindingConfig config, String sql) {
+		Matcher matcher = CACHE_TTL_PATTERN.matcher(sql);
+		if (!matcher.matches()) {
+			return sql;
+		}
+		config.cacheTtl = toMillis(Long.parseLong(matcher.group(1)), matcher.group(2));
+		return matcher.group(3);
+	}
+
+	/**
+	 * compile SQL with an optional time limit in front
+	 *
+	 * @param sql [timeout=limit:][serverId:]SQL, limit is a number with unit ms, s, m or h
+	 * @return template, null if the SQL is blank
+	 */
+	private static QueryTemplate compile(String sql) {
+		Matcher matcher = sql == null ? null : TIMEOUT_PATTERN.matcher(sql);
+		if (matcher == null || !matcher.matches()) {
+			return QueryTemplate.compile(sql);
+		}
+		return QueryTemplate.compile(matcher.group(3), toMillis(Long.parseLong(matcher.group(1)), matcher.group(2)));
+	}
+
+	/**
+	 * @param sql [timeout=limit:][serverId:]SQL
+	 * @return [serverId:]SQL as it is executed, null if sql is null
+	 */
+	private static String stripTimeout(String sql) {
+		Matcher matcher = sql == null ? null : TIMEOUT_PATTERN.matcher(sql);
+		if (matcher == null || !matcher.matches()) {
+			return sql;
+		}
+		return matcher.group(3);
+	}
+
+	private static long toMillis(long value, String unit) {
+		if ("h".equals(unit)) {
+			return TimeUnit.HOURS.toMillis(value);
+		} else if ("m".equals(unit)) {
+			return TimeUnit.MINUTES.toMillis(value);
+		} else if ("s".equals(unit)) {
+			return TimeUnit.SECONDS.toMillis(value);
+		}
+		return value;
+	}
+
 
 	/**
 	 * Binding configuration
@@ -120,6 +272,42 @@ public abstract class ACDBGenericBindingProvider extends AbstractGenericBindingP
 		 * SQL for insert
 		 */
 		private String insertSql;
+		/**
+		 * compiled SQL for select
+		 */
+		private QueryTemplate selectQuery;
+		/**
+		 * compiled SQL for update
+		 */
+		private QueryTemplate updateQuery;
+		/**
+		 * compiled SQL for insert
+		 */
+		private QueryTemplate insertQuery;
+		/**
+		 * key of the item in the rows of scanQuery
+		 */
+		private String scanKey;
+		/**
+		 * compiled SQL of a table scan
+		 */
+		private QueryTemplate scanQuery;
+		/**
+		 * polling interval in ms, 0 for the refresh interval of the binding
+		 */
+		private long pollInterval;
+		/**
+		 * TTL in ms of cached select results, 0 for the TTL of the binding
+		 */
+		private long cacheTtl;
+		/**
+		 * server whose change-log updates the item
+		 */
+		private String changeLogServerId;
+		/**
+		 * key of the item in the change-log
+		 */
+		private String changeLogKey;
 	}
 
 	@Override
@@ -139,4 +327,58 @@ public abstract class ACDBGenericBindingProvider extends AbstractGenericBindingP
 		ACDBBindingConfig config = (ACDBBindingConfig) bindingConfigs.get(itemName);
 		return config != null ? config.insertSql : null;
 	}
+
+	@Override
+	public QueryTemplate getUpdateQuery(String itemName) {
+		ACDBBindingConfig config = (ACDBBindingConfig) bindingConfigs.get(itemName);
+		return config != null ? config.updateQuery : null;
+	}
+
+	@Override
+	public QueryTemplate getSelectQuery(String itemName) {
+		ACDBBindingConfig config = (ACDBBindingConfig) bindingConfigs.get(itemName);
+		return config != null ? config.selectQuery : null;
+	}
+
+	@Override
+	public QueryTemplate getInsertQuery(String itemName) {
+		ACDBBindingConfig config = (ACDBBindingConfig) bindingConfigs.get(itemName);
+		return config != null ? config.insertQuery : null;
+	}
+
+	@Override
+	public long getPollInterval(String itemName) {
+		ACDBBindingConfig config = (ACDBBindingConfig) bindingConfigs.get(itemName);
+		return config != null ? config.pollInterval : 0;
+	}
+
+	@Override
+	public long getCacheTtl(String itemName) {
+		ACDBBindingConfig config = (ACDBBindingConfig) bindingConfigs.get(itemName);
+		return config != null ? config.cacheTtl : 0;
+	}
+
+	@Override
+	public String getChangeLogServerId(String itemName) {
+		ACDBBindingConfig config = (ACDBBindingConfig) bindingConfigs.get(itemName);
+		return config != null ? config.changeLogServerId : null;
+	}
+
+	@Override
+	public String getChangeLogKey(String itemName) {
+		ACDBBindingConfig config = (ACDBBindingConfig) bindingConfigs.get(itemName);
+		return config != null ? config.changeLogKey : null;
+	}
+
+	@Override
+	public String getScanKey(String itemName) {
+		ACDBBindingConfig config = (ACDBBindingConfig) bindingConfigs.get(itemName);
+		return config != null ? config.scanKey : null;
+	}
+
+	@Override
+	public QueryTemplate getScanQuery(String itemName) {
+		ACDBBindingConfig config = (ACDBBindingConfig) bindingConfigs.get(itemName);
+		return config != null ? config.scanQuery : null;
+	}
 }
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.ACDBCommon.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.openhab.binding.ACDBCommon.db.LatencyHistogram;
+import org.openhab.binding.ACDBCommon.db.LatencySnapshot;
+
+/**
+ * <p>
+ * Latency of the refresh cycle and of the statements run for each item
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class BindingMetrics implements BindingMetricsMXBean {
+
+	private final ACDBBinding binding;
+	private final LatencyHistogram cycle = new LatencyHistogram();
+	private final ConcurrentMap<String, LatencyHistogram> items = new ConcurrentHashMap<>();
+
+	BindingMetrics(ACDBBinding binding) {
+		this.binding = binding;
+	}
+
+	LatencyHistogram cycle() {
+		return cycle;
+	}
+
+	/**
+	 * @param itemName
+	 * @return histogram of the item, created on first use
+	 */
+	LatencyHistogram item(String itemName) {
+		LatencyHistogram histogram = items.get(itemName);
+		if (histogram == null) {
+			histogram = LatencyHistogram.coarse();
+			LatencyHistogram existing = items.putIfAbsent(itemName, histogram);
+			if (existing != null) {
+				histogram = existing;
+			}
+		}
+		return histogram;
+	}
+
+	/**
+	 * forget an item which is no longer bound
+	 *
+	 * @param itemName
+	 */
+	void removeItem(String itemName) {
+		items.remove(itemName);
+	}
+
+	@Override
+	public LatencySnapshot getCycle() {
+		return cycle.snapshot();
+	}
+
+	@Override
+	public int getCommandQueueDepth() {
+		return binding.getCommandQueueDepth();
+	}
+
+	@Override
+	public int getCommandQueueMaxDepth() {
+		return binding.getCommandQueueMaxDepth();
+	}
+
+	@Override
+	public long getCommandDroppedCount() {
+		return binding.getCommandDroppedCount();
+	}
+
+	@Override
+	public long getDeferredPollCount() {
+		return binding.getDeferredPollCount();
+	}
+
+	@Override
+	public long getResultCacheHits() {
+		return binding.getResultCacheHits();
+	}
+
+	@Override
+	public long getResultCacheMisses() {
+		return binding.getResultCacheMisses();
+	}
+
+	@Override
+	public int getItemCount() {
+		return items.size();
+	}
+
+	@Override
+	public LatencySnapshot itemLatency(String itemName) {
+		LatencyHistogram histogram = items.get(itemName);
+		return histogram == null ? null : histogram.snapshot();
+	}
+
+	@Override
+	public String[] slowestItems(int count) {
+		final Map<String, Long> p99 = new ConcurrentHashMap<>();
+		for (Map.Entry<String, LatencyHistogram> entry : items.entrySet()) {
+			p99.put(entry.getKey(), entry.getValue().getPercentile(99));
+		}
+		List<String> names = new ArrayList<>(p99.keySet());
+		Collections.sort(names, new Comparator<String>() {
+			@Override
+			public int compare(String a, String b) {
+				return Long.compare(p99.get(b), p99.get(a));
+			}
+		});
+		return names.subList(0, Math.max(0, Math.min(count, names.size()))).toArray(new String[0]);
+	}
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.ACDBCommon.internal;
+
+import org.openhab.binding.ACDBCommon.db.LatencySnapshot;
+
+/**
+ * <p>
+ * JMX view of the refresh cycle, the command lanes and the items of a binding
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public interface BindingMetricsMXBean {
+
+	LatencySnapshot getCycle();
+
+	int getCommandQueueDepth();
+
+	int getCommandQueueMaxDepth();
+
+	long getCommandDroppedCount();
+
+	/**
+	 * @return number of item polls deferred because the cycle budget was used up
+	 */
+	long getDeferredPollCount();
+
+	/**
+	 * @return state updates answered from the result cache
+	 */
+	long getResultCacheHits();
+
+	/**
+	 * @return state updates which had to select from the database
+	 */
+	long getResultCacheMisses();
+
+	/**
+	 * @return number of items with recorded statements
+	 */
+	int getItemCount();
+
+	/**
+	 * @param itemName
+	 * @return statement latency of the item, null if none was recorded
+	 */
+	LatencySnapshot itemLatency(String itemName);
+
+	/**
+	 * @param count
+	 * @return names of the items with the highest p99 latency, slowest first
+	 */
+	String[] slowestItems(int count);
+}
@@ -0,0 +1,234 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.internal;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openhab.binding.ACDBCommon.db.ExecutionStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Runs command and update handling off the event bus thread
+ * </p>
+ * <p>
+ * Items are spread over a fixed number of lanes by the hash of their name.
+ * A lane runs its work one at a time in arrival order, so the work of one
+ * item keeps its order while different lanes run in parallel. Each lane
+ * holds at most queueSize waiting tasks, the overflow policy decides what
+ * happens to further work.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+class CommandDispatcher {
+	/**
+	 * logger
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(ACDBBinding.class);
+
+	/**
+	 * behavior when the lane of an item is full
+	 */
+	enum OverflowPolicy {
+		/**
+		 * wait for space in the lane
+		 */
+		BLOCK,
+		/**
+		 * discard the new work
+		 */
+		DROP,
+		/**
+		 * run the new work on the calling thread, it may overtake queued work of the same item
+		 */
+		SYNC
+	}
+
+	private final Lane[] lanes;
+	private final OverflowPolicy overflowPolicy;
+	private final ExecutorService workers;
+	private volatile boolean closed;
+
+	private final AtomicLong dispatched = new AtomicLong();
+	private final AtomicLong completed = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong ranOnCaller = new AtomicLong();
+	private final AtomicInteger maxDepth = new AtomicInteger();
+
+	/**
+	 * @param name prefix of the worker thread names
+	 * @param laneCount number of lanes, at most this many tasks run at the same time
+	 * @param queueSize waiting tasks per lane
+	 * @param overflowPolicy
+	 * @param strategy creates the workers draining the lanes
+	 */
+	CommandDispatcher(String name, int laneCount, int queueSize, OverflowPolicy overflowPolicy,
+		ExecutionStrategy strategy) {
+		this.lanes = new Lane[laneCount];
+		for (int i = 0; i < laneCount; i++) {
+			lanes[i] = new Lane(queueSize);
+		}
+		this.overflowPolicy = overflowPolicy;
+		this.workers = strategy.newExecutor(name + " command lane", laneCount);
+	}
+
+	/**
+	 * queue work of an item behind the earlier work of the same item
+	 *
+	 * @param itemName
+	 * @param task
+	 */
+	void dispatch(String itemName, Runnable task) {
+		if (closed) {
+			runOnCaller(task);
+			return;
+		}
+		Lane lane = lanes[(itemName.hashCode() & Integer.MAX_VALUE) % lanes.length];
+		if (!lane.queue.offer(task)) {
+			switch (overflowPolicy) {
+				case BLOCK:
+					try {
+						lane.queue.put(task);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						dropped.incrementAndGet();
+						logger.warn("interrupted while queueing work of " + itemName + ", discarded");
+						return;
+					}
+					break;
+				case DROP:
+					dropped.incrementAndGet();
+					logger.warn("command lane of " + itemName + " is full, work discarded");
+					return;
+				default:
+					runOnCaller(task);
+					return;
+			}
+		}
+		dispatched.incrementAndGet();
+		int depth = getDepth();
+		int max = maxDepth.get();
+		while (depth > max && !maxDepth.compareAndSet(max, depth)) {
+			max = maxDepth.get();
+		}
+		lane.schedule();
+	}
+
+	/**
+	 * stop accepting work and wait for the queued work to finish
+	 */
+	void close() {
+		closed = true;
+		workers.shutdown();
+		try {
+			if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+				logger.warn(getDepth() + " queued commands were not handled before shutdown");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return number of tasks waiting in all lanes
+	 */
+	int getDepth() {
+		int depth = 0;
+		for (Lane lane : lanes) {
+			depth += lane.queue.size();
+		}
+		return depth;
+	}
+
+	/**
+	 * @return highest number of waiting tasks seen
+	 */
+	int getMaxDepth() {
+		return maxDepth.get();
+	}
+
+	int getLaneCount() {
+		return lanes.length;
+	}
+
+	long getDispatchedCount() {
+		return dispatched.get();
+	}
+
+	long getCompletedCount() {
+		return completed.get();
+	}
+
+	long getDroppedCount() {
+		return dropped.get();
+	}
+
+	long getRanOnCallerCount() {
+		return ranOnCaller.get();
+	}
+
+	private void runOnCaller(Runnable task) {
+		ranOnCaller.incrementAndGet();
+		run(task);
+	}
+
+	private void run(Runnable task) {
+		try {
+			task.run();
+		} catch (RuntimeException e) {
+			logger.error("failed to handle command", e);
+		}
+	}
+
+	/**
+	 * tasks of the items hashed to one lane, drained by one worker at a time
+	 */
+	private final class Lane implements Runnable {
+		final BlockingQueue<Runnable> queue;
+		final AtomicBoolean scheduled = new AtomicBoolean();
+
+		Lane(int queueSize) {
+			this.queue = new ArrayBlockingQueue<>(queueSize);
+		}
+
+		void schedule() {
+			if (scheduled.compareAndSet(false, true)) {
+				try {
+					workers.execute(this);
+				} catch (RejectedExecutionException e) {
+					// closed meanwhile, drain on the caller
+					run();
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			do {
+				Runnable task;
+				while ((task = queue.poll()) != null) {
+					CommandDispatcher.this.run(task);
+					completed.incrementAndGet();
+				}
+				scheduled.set(false);
+			} while (!queue.isEmpty() && scheduled.compareAndSet(false, true));
+		}
+	}
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.internal;
+
+import org.openhab.binding.ACDBCommon.ACDBBindingProvider;
+import org.openhab.binding.ACDBCommon.db.QueryTemplate;
+
+/**
+ * <p>
+ * Binding of one item by one provider, resolved when the binding changes
+ * </p>
+ * <p>
+ * Holds what command and update handling needs from the provider, so an
+ * event is handled without asking every provider for its configuration.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+final class ItemRoute {
+	final ACDBBindingProvider provider;
+	final String updateSql;
+	final String insertSql;
+	final QueryTemplate selectQuery;
+	final QueryTemplate updateQuery;
+	final QueryTemplate insertQuery;
+	final long cacheTtl;
+
+	ItemRoute(ACDBBindingProvider provider, String itemName) {
+		this.provider = provider;
+		this.updateSql = provider.getUpdateSql(itemName);
+		this.insertSql = provider.getInsertSql(itemName);
+		this.selectQuery = provider.getSelectQuery(itemName);
+		this.updateQuery = provider.getUpdateQuery(itemName);
+		this.insertQuery = provider.getInsertQuery(itemName);
+		this.cacheTtl = provider.getCacheTtl(itemName);
+	}
+
+	/**
+	 * @return true if neither commands nor updates of the item reach the database
+	 */
+	boolean isEmpty() {
+		return updateSql == null && insertSql == null && selectQuery == null;
+	}
+}
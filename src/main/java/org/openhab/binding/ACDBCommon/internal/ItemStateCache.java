@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.internal;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Last known value of each item, shared by the refresh cycle and the event bus
+ * </p>
+ * <p>
+ * Every write stamps the item with the next value of a global sequence. A
+ * reader takes {@link #stamp()} before querying the database and stores its
+ * result with {@link #compareAndSet(String, String, long)}, which refuses the
+ * value when the item was written after the stamp, e.g. by a command. A
+ * stale poll result can thus not overwrite a newer command value.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+class ItemStateCache {
+
+	/**
+	 * result of {@link ItemStateCache#compareAndSet(String, String, long)}
+	 */
+	enum Result {
+		CHANGED, UNCHANGED, STALE
+	}
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicLong sequence = new AtomicLong();
+
+	/**
+	 * @return current sequence, to be taken before reading a value from the database
+	 */
+	long stamp() {
+		return sequence.get();
+	}
+
+	/**
+	 * @param itemName
+	 * @return last known value, null if unknown
+	 */
+	String get(String itemName) {
+		Entry entry = entries.get(itemName);
+		return entry == null ? null : entry.value;
+	}
+
+	/**
+	 * @param itemName
+	 * @param value
+	 * @return true if the item is known with the given value
+	 */
+	boolean isUnchanged(String itemName, String value) {
+		Entry entry = entries.get(itemName);
+		return entry != null && entry.matches(value);
+	}
+
+	/**
+	 * store a value unconditionally, used for commands
+	 *
+	 * @param itemName
+	 * @param value
+	 * @return previous value, null if unknown
+	 */
+	String put(String itemName, String value) {
+		Entry previous = entries.put(itemName, new Entry(value, sequence.incrementAndGet()));
+		return previous == null ? null : previous.value;
+	}
+
+	/**
+	 * store a value read from the database unless the item was written after the read started
+	 *
+	 * @param itemName
+	 * @param value
+	 * @param stamp result of {@link #stamp()} taken before the read
+	 * @return CHANGED if stored, UNCHANGED if the value is known, STALE if the item is newer
+	 */
+	Result compareAndSet(String itemName, String value, long stamp) {
+		for (;;) {
+			Entry current = entries.get(itemName);
+			if (current != null) {
+				if (current.version > stamp) {
+					return Result.STALE;
+				}
+				if (current.matches(value)) {
+					return Result.UNCHANGED;
+				}
+			}
+			Entry next = new Entry(value, sequence.incrementAndGet());
+			if (current == null ? entries.putIfAbsent(itemName, next) == null : entries.replace(itemName, current,
+				next)) {
+				return Result.CHANGED;
+			}
+		}
+	}
+
+	/**
+	 * forget an item which is no longer bound
+	 *
+	 * @param itemName
+	 */
+	void remove(String itemName) {
+		entries.remove(itemName);
+	}
+
+	/**
+	 * immutable value with its version, replaced as a whole
+	 */
+	private static final class Entry {
+		final String value;
+		final int hash;
+		final long version;
+
+		Entry(String value, long version) {
+			this.value = value;
+			this.hash = value == null ? 0 : value.hashCode();
+			this.version = version;
+		}
+
+		boolean matches(String other) {
+			if (other == null) {
+				return value == null;
+			}
+			return hash == other.hashCode() && other.equals(value);
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openhab.binding.ACDBCommon.db.QueryTemplate;
+import org.openhab.binding.ACDBCommon.db.ServerInfo;
+
+/**
+ * <p>
+ * Items of one DB server polled in a refresh cycle
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+class PollPartition {
+	/**
+	 * server of this partition, null for queries of an unknown server
+	 */
+	final ServerInfo server;
+
+	/**
+	 * selects by SQL, items sharing the same SQL share one execution
+	 */
+	final Map<String, SelectGroup> selects = new LinkedHashMap<>();
+
+	/**
+	 * table scans by SQL
+	 */
+	final Map<String, ScanGroup> scans = new LinkedHashMap<>();
+
+	/**
+	 * item names by change-log key, null if the change-log is not polled
+	 */
+	Map<String, List<String>> changeLogItems;
+
+	PollPartition(ServerInfo server) {
+		this.server = server;
+	}
+
+	void addItem(String itemName, QueryTemplate query) {
+		SelectGroup select = selects.get(query.getSql());
+		if (select == null) {
+			select = new SelectGroup(query);
+			selects.put(query.getSql(), select);
+		}
+		select.itemNames.add(itemName);
+	}
+
+	void addScan(String itemName, String key, QueryTemplate query) {
+		ScanGroup scan = scans.get(query.getSql());
+		if (scan == null) {
+			scan = new ScanGroup(query);
+			scans.put(query.getSql(), scan);
+		}
+		scan.add(key, itemName);
+	}
+
+	/**
+	 * @return number of items in this partition
+	 */
+	int size() {
+		int size = 0;
+		for (SelectGroup select : selects.values()) {
+			size += select.itemNames.size();
+		}
+		for (ScanGroup scan : scans.values()) {
+			size += scan.size;
+		}
+		return size;
+	}
+
+	/**
+	 * Items filled from the row of one select
+	 */
+	static class SelectGroup {
+		final QueryTemplate query;
+		final List<String> itemNames = new ArrayList<>(1);
+
+		SelectGroup(QueryTemplate query) {
+			this.query = query;
+		}
+	}
+
+	/**
+	 * Items filled from the rows of one key/value query
+	 */
+	static class ScanGroup {
+		final QueryTemplate query;
+		/**
+		 * item names by the key in the first column
+		 */
+		final Map<String, List<String>> itemsByKey = new HashMap<>();
+		int size;
+
+		ScanGroup(QueryTemplate query) {
+			this.query = query;
+		}
+
+		void add(String key, String itemName) {
+			List<String> itemNames = itemsByKey.get(key);
+			if (itemNames == null) {
+				itemNames = new ArrayList<>(1);
+				itemsByKey.put(key, itemNames);
+			}
+			itemNames.add(itemName);
+			size++;
+		}
+	}
+}
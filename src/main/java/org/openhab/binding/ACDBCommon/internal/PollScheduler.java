@@ -0,0 +1,287 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openhab.binding.ACDBCommon.ACDBBindingProvider;
+
+/**
+ * <p>
+ * Hashed timing wheel deciding which items are due for polling
+ * </p>
+ * <p>
+ * Each bucket covers one tick. Entries are placed in the bucket of their
+ * deadline and are checked when the wheel passes the bucket, entries of later
+ * revolutions stay in place until their deadline is reached.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+class PollScheduler {
+	/**
+	 * golden ratio multiplier of Fibonacci hashing
+	 */
+	private static final int STAGGER_MULTIPLIER = 0x9E3779B9;
+
+	private final long tick;
+	private final List<List<Entry>> wheel;
+	/**
+	 * entries by item name and provider, an item bound by several providers is polled for each of them
+	 */
+	private final Map<String, Map<ACDBBindingProvider, Entry>> entries = new HashMap<>();
+	/**
+	 * last tick processed by advance
+	 */
+	private long currentTick;
+
+	/**
+	 * @param tick resolution in ms
+	 * @param wheelSize number of buckets
+	 * @param now current time in ms
+	 */
+	PollScheduler(long tick, int wheelSize, long now) {
+		this.tick = tick;
+		this.wheel = new ArrayList<>(wheelSize);
+		for (int i = 0; i < wheelSize; i++) {
+			wheel.add(new ArrayList<Entry>());
+		}
+		this.currentTick = now / tick;
+	}
+
+	long getTick() {
+		return tick;
+	}
+
+	/**
+	 * schedule the binding of an item by a provider, replacing a previous schedule
+	 *
+	 * @param itemName
+	 * @param provider
+	 * @param interval polling interval in ms
+	 * @param delay delay of the first poll in ms
+	 * @param now current time in ms
+	 */
+	synchronized void schedule(String itemName, ACDBBindingProvider provider, long interval, long delay, long now) {
+		Map<ACDBBindingProvider, Entry> byProvider = entries.get(itemName);
+		if (byProvider == null) {
+			byProvider = new HashMap<>(2);
+			entries.put(itemName, byProvider);
+		}
+		Entry entry = new Entry(itemName, provider, interval);
+		Entry old = byProvider.put(provider, entry);
+		if (old != null) {
+			old.cancelled = true;
+		}
+		place(entry, now + delay);
+	}
+
+	/**
+	 * schedule the binding of an item with its first poll staggered over one interval
+	 */
+	void scheduleStaggered(String itemName, ACDBBindingProvider provider, long interval, long now) {
+		// names like item1, item2 have neighbouring hash codes, spread them over the interval
+		long delay = interval > 0 ? ((itemName.hashCode() * STAGGER_MULTIPLIER) & 0xffffffffL) % interval : 0;
+		schedule(itemName, provider, interval, delay, now);
+	}
+
+	/**
+	 * move the next poll of all bindings of an item
+	 *
+	 * @param itemName
+	 * @param delay delay in ms from now
+	 * @param now current time in ms
+	 */
+	synchronized void reschedule(String itemName, long delay, long now) {
+		Map<ACDBBindingProvider, Entry> byProvider = entries.get(itemName);
+		if (byProvider == null) {
+			return;
+		}
+		for (Entry entry : new ArrayList<>(byProvider.values())) {
+			replace(byProvider, entry, entry.effectiveInterval, now + delay);
+		}
+	}
+
+	/**
+	 * change the interval an item is actually polled at, the next poll is one
+	 * effective interval from now; no binding is polled more often than configured
+	 *
+	 * @param itemName
+	 * @param effectiveInterval interval in ms
+	 * @param now current time in ms
+	 */
+	synchronized void setEffectiveInterval(String itemName, long effectiveInterval, long now) {
+		Map<ACDBBindingProvider, Entry> byProvider = entries.get(itemName);
+		if (byProvider == null) {
+			return;
+		}
+		for (Entry entry : new ArrayList<>(byProvider.values())) {
+			long interval = Math.max(entry.interval, effectiveInterval);
+			if (entry.effectiveInterval != interval) {
+				replace(byProvider, entry, interval, now + interval);
+			}
+		}
+	}
+
+	/**
+	 * @param itemName
+	 * @return shortest interval in ms the item is actually polled at, 0 if the item is not scheduled
+	 */
+	synchronized long getEffectiveInterval(String itemName) {
+		long shortest = 0;
+		Map<ACDBBindingProvider, Entry> byProvider = entries.get(itemName);
+		if (byProvider != null) {
+			for (Entry entry : byProvider.values()) {
+				if (shortest == 0 || entry.effectiveInterval < shortest) {
+					shortest = entry.effectiveInterval;
+				}
+			}
+		}
+		return shortest;
+	}
+
+	/**
+	 * @param itemName
+	 * @param provider
+	 * @return true if the binding was scheduled
+	 */
+	synchronized boolean remove(String itemName, ACDBBindingProvider provider) {
+		Map<ACDBBindingProvider, Entry> byProvider = entries.get(itemName);
+		Entry entry = byProvider != null ? byProvider.remove(provider) : null;
+		if (entry == null) {
+			return false;
+		}
+		if (byProvider.isEmpty()) {
+			entries.remove(itemName);
+		}
+		entry.cancelled = true;
+		return true;
+	}
+
+	/**
+	 * @param itemName
+	 * @return shortest polling interval in ms of the bindings of the item, 0 if the item is not scheduled
+	 */
+	synchronized long getInterval(String itemName) {
+		long shortest = 0;
+		Map<ACDBBindingProvider, Entry> byProvider = entries.get(itemName);
+		if (byProvider != null) {
+			for (Entry entry : byProvider.values()) {
+				if (shortest == 0 || entry.interval < shortest) {
+					shortest = entry.interval;
+				}
+			}
+		}
+		return shortest;
+	}
+
+	/**
+	 * @param itemName
+	 * @param provider
+	 * @return polling interval in ms, 0 if the binding is not scheduled
+	 */
+	synchronized long getInterval(String itemName, ACDBBindingProvider provider) {
+		Map<ACDBBindingProvider, Entry> byProvider = entries.get(itemName);
+		Entry entry = byProvider != null ? byProvider.get(provider) : null;
+		return entry != null ? entry.interval : 0;
+	}
+
+	/**
+	 * @return all scheduled bindings
+	 */
+	synchronized Set<Entry> getEntries() {
+		Set<Entry> all = new HashSet<>();
+		for (Map<ACDBBindingProvider, Entry> byProvider : entries.values()) {
+			all.addAll(byProvider.values());
+		}
+		return all;
+	}
+
+	/**
+	 * collect the entries due until now, they are rescheduled one interval later
+	 *
+	 * @param now current time in ms
+	 * @return due entries
+	 */
+	synchronized List<Entry> advance(long now) {
+		long targetTick = now / tick;
+		if (targetTick <= currentTick) {
+			return Collections.emptyList();
+		}
+		long firstTick = Math.max(currentTick + 1, targetTick - wheel.size() + 1);
+		List<Entry> due = new ArrayList<>();
+		for (long t = firstTick; t <= targetTick; t++) {
+			Iterator<Entry> it = wheel.get((int) (t % wheel.size())).iterator();
+			while (it.hasNext()) {
+				Entry entry = it.next();
+				if (entry.cancelled) {
+					it.remove();
+				} else if (entry.deadline <= now) {
+					it.remove();
+					due.add(entry);
+				}
+			}
+		}
+		currentTick = targetTick;
+		for (Entry entry : due) {
+			place(entry, now + entry.effectiveInterval);
+		}
+		return due;
+	}
+
+	private void replace(Map<ACDBBindingProvider, Entry> byProvider, Entry entry, long effectiveInterval,
+		long deadline) {
+		entry.cancelled = true;
+		Entry replacement = new Entry(entry.itemName, entry.provider, entry.interval);
+		replacement.effectiveInterval = effectiveInterval;
+		byProvider.put(entry.provider, replacement);
+		place(replacement, deadline);
+	}
+
+	private void place(Entry entry, long deadline) {
+		entry.deadline = deadline;
+		// first tick at or after the deadline, an earlier bucket is checked while the entry is not yet due
+		long t = Math.max((deadline + tick - 1) / tick, currentTick + 1);
+		wheel.get((int) (t % wheel.size())).add(entry);
+	}
+
+	/**
+	 * Scheduled binding of an item by a provider
+	 */
+	static class Entry {
+		final String itemName;
+		final ACDBBindingProvider provider;
+		/**
+		 * configured interval
+		 */
+		final long interval;
+		/**
+		 * interval the item is actually polled at
+		 */
+		long effectiveInterval;
+		long deadline;
+		boolean cancelled;
+
+		Entry(String itemName, ACDBBindingProvider provider, long interval) {
+			this.itemName = itemName;
+			this.provider = provider;
+			this.interval = interval;
+			this.effectiveInterval = interval;
+		}
+	}
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.ACDBCommon.internal;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openhab.binding.ACDBCommon.db.ServerInfo;
+import org.openhab.core.types.State;
+
+/**
+ * <p>
+ * Recently selected results by server and SQL
+ * </p>
+ * <p>
+ * Filled by the refresh cycle and by selects on state updates, read by the
+ * latter while younger than the TTL of the item. A write to a table drops
+ * the results of the same server reading that table, the results of selects
+ * whose tables are not recognized are dropped by any write to the server.
+ * A result is only stored if nothing was invalidated since its select
+ * started, see {@link #version()}. The least recently used result is
+ * evicted beyond maxSize.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+class ResultCache {
+
+	/**
+	 * tables following FROM or JOIN
+	 */
+	private static final Pattern READ_TABLE_PATTERN = Pattern.compile("\\b(?:FROM|JOIN)\\s+([\\w.\"`\\[\\]]+)",
+		Pattern.CASE_INSENSITIVE);
+
+	/**
+	 * table of UPDATE, INSERT INTO, DELETE FROM, MERGE INTO or REPLACE INTO
+	 */
+	private static final Pattern WRITE_TABLE_PATTERN = Pattern.compile(
+		"^\\s*(?:UPDATE|(?:INSERT|MERGE|REPLACE)\\s+INTO|DELETE\\s+FROM)\\s+([\\w.\"`\\[\\]]+)", Pattern.CASE_INSENSITIVE);
+
+	private final Map<Key, CachedResult> entries;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong invalidations = new AtomicLong();
+
+	/**
+	 * @param maxSize number of results kept
+	 */
+	ResultCache(final int maxSize) {
+		this.entries = new LinkedHashMap<Key, CachedResult>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, CachedResult> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * @param server
+	 * @param sql
+	 * @param ttl maximum age in ms
+	 * @return cached result, null if none or too old
+	 */
+	CachedResult get(ServerInfo server, String sql, long ttl) {
+		CachedResult entry;
+		synchronized (entries) {
+			entry = entries.get(new Key(server, sql));
+		}
+		if (entry == null || System.currentTimeMillis() - entry.loadedAt >= ttl) {
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		return entry;
+	}
+
+	/**
+	 * @return number of invalidations, to be taken before selecting a result to put
+	 */
+	long version() {
+		return invalidations.get();
+	}
+
+	/**
+	 * @param server
+	 * @param sql
+	 * @param state result, null if no row was found
+	 * @param version result of {@link #version()} taken before the select
+	 */
+	void put(ServerInfo server, String sql, State state, long version) {
+		Key key = new Key(server, sql);
+		synchronized (entries) {
+			if (invalidations.get() != version) {
+				// a write may have changed the result meanwhile
+				return;
+			}
+			CachedResult previous = entries.get(key);
+			Set<String> tables = previous != null ? previous.tables : tables(READ_TABLE_PATTERN, sql);
+			entries.put(key, new CachedResult(state, tables, System.currentTimeMillis()));
+		}
+	}
+
+	/**
+	 * drop the results a write may have changed
+	 *
+	 * @param server
+	 * @param sql update or insert
+	 */
+	void invalidate(ServerInfo server, String sql) {
+		Set<String> written = tables(WRITE_TABLE_PATTERN, sql);
+		synchronized (entries) {
+			invalidations.incrementAndGet();
+			Iterator<Map.Entry<Key, CachedResult>> it = entries.entrySet().iterator();
+			while (it.hasNext()) {
+				Map.Entry<Key, CachedResult> entry = it.next();
+				if (entry.getKey().server == server
+					&& (written.isEmpty() || entry.getValue().tables.isEmpty() || !Collections.disjoint(written,
+						entry.getValue().tables))) {
+					it.remove();
+				}
+			}
+		}
+	}
+
+	void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	long getHits() {
+		return hits.get();
+	}
+
+	long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @param pattern
+	 * @param sql
+	 * @return lower case table names without schema quoting, empty if none are recognized
+	 */
+	private static Set<String> tables(Pattern pattern, String sql) {
+		Set<String> tables = new HashSet<>();
+		Matcher matcher = pattern.matcher(sql);
+		while (matcher.find()) {
+			String table = StringUtils.lowerCase(StringUtils.replaceChars(matcher.group(1), "\"`[]", ""));
+			if (!table.isEmpty()) {
+				tables.add(table);
+			}
+		}
+		return tables;
+	}
+
+	/**
+	 * cached result
+	 */
+	static final class CachedResult {
+		/**
+		 * selected state, null if no row was found
+		 */
+		final State state;
+		final Set<String> tables;
+		final long loadedAt;
+
+		CachedResult(State state, Set<String> tables, long loadedAt) {
+			this.state = state;
+			this.tables = tables;
+			this.loadedAt = loadedAt;
+		}
+	}
+
+	private static final class Key {
+		final ServerInfo server;
+		final String sql;
+		final int hash;
+
+		Key(ServerInfo server, String sql) {
+			this.server = server;
+			this.sql = sql;
+			this.hash = 31 * System.identityHashCode(server) + sql.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return server == other.server && sql.equals(other.sql);
+		}
+	}
+}
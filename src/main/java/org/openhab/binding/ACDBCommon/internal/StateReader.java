@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.internal;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Calendar;
+import java.util.List;
+
+import org.openhab.binding.ACDBCommon.db.DBManager;
+import org.openhab.core.items.Item;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.types.State;
+import org.openhab.core.types.TypeParser;
+
+/**
+ * <p>
+ * Converts selected rows of one item to its State
+ * </p>
+ * <p>
+ * The item and its accepted data types are looked up once. A single numeric,
+ * boolean or timestamp column is read with the matching getter when the first
+ * accepted data type of the item can be built from it, everything else goes
+ * through the string and {@link TypeParser} as before. The decision is cached
+ * per column type of the result.
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+class StateReader implements DBManager.ResultReader<State> {
+
+	private final List<Class<? extends State>> acceptedTypes;
+	/**
+	 * conversion of the last seen result shape
+	 */
+	private volatile Column column;
+
+	StateReader(Item item) {
+		this.acceptedTypes = item.getAcceptedDataTypes();
+	}
+
+	/**
+	 * @param value
+	 * @return State parsed from a string value
+	 */
+	State parse(String value) {
+		return TypeParser.parseState(acceptedTypes, value);
+	}
+
+	/**
+	 * @param state
+	 * @return true if the item accepts the state, null is accepted as no value
+	 */
+	boolean accepts(State state) {
+		return state == null || acceptedTypes != null && acceptedTypes.contains(state.getClass());
+	}
+
+	@Override
+	public State read(ResultSet rs) throws SQLException {
+		ResultSetMetaData metaData = rs.getMetaData();
+		int columnCount = metaData.getColumnCount();
+		if (columnCount != 1) {
+			return parse(DBManager.readString(rs));
+		}
+		int columnType = metaData.getColumnType(1);
+		Column column = this.column;
+		if (column == null || column.type != columnType) {
+			column = new Column(columnType, resolve(columnType));
+			this.column = column;
+		}
+
+		switch (column.conversion) {
+			case DECIMAL:
+			case PERCENT:
+				BigDecimal number = rs.getBigDecimal(1);
+				if (number == null) {
+					return parse(null);
+				}
+				if (column.conversion == Conversion.DECIMAL) {
+					return new DecimalType(number);
+				}
+				try {
+					return new PercentType(number);
+				} catch (IllegalArgumentException e) {
+					return parse(number.toPlainString());
+				}
+			case ON_OFF:
+			case OPEN_CLOSED:
+				boolean flag = rs.getBoolean(1);
+				if (rs.wasNull()) {
+					return parse(null);
+				}
+				if (column.conversion == Conversion.ON_OFF) {
+					return flag ? OnOffType.ON : OnOffType.OFF;
+				}
+				return flag ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+			case DATE_TIME:
+				Timestamp timestamp = rs.getTimestamp(1);
+				if (timestamp == null) {
+					return parse(null);
+				}
+				Calendar calendar = Calendar.getInstance();
+				calendar.setTimeInMillis(timestamp.getTime());
+				return new DateTimeType(calendar);
+			default:
+				return parse(rs.getString(1));
+		}
+	}
+
+	/**
+	 * decide the conversion of a column from the first accepted data type,
+	 * which is what TypeParser would try first
+	 *
+	 * @param columnType java.sql.Types
+	 * @return
+	 */
+	private Conversion resolve(int columnType) {
+		if (acceptedTypes == null || acceptedTypes.isEmpty()) {
+			return Conversion.STRING;
+		}
+		Class<? extends State> target = acceptedTypes.get(0);
+		switch (columnType) {
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+			case Types.BIGINT:
+			case Types.REAL:
+			case Types.FLOAT:
+			case Types.DOUBLE:
+			case Types.NUMERIC:
+			case Types.DECIMAL:
+				if (target == DecimalType.class) {
+					return Conversion.DECIMAL;
+				}
+				if (target == PercentType.class) {
+					return Conversion.PERCENT;
+				}
+				break;
+			case Types.BIT:
+			case Types.BOOLEAN:
+				if (target == OnOffType.class) {
+					return Conversion.ON_OFF;
+				}
+				if (target == OpenClosedType.class) {
+					return Conversion.OPEN_CLOSED;
+				}
+				break;
+			case Types.DATE:
+			case Types.TIME:
+			case Types.TIMESTAMP:
+				if (target == DateTimeType.class) {
+					return Conversion.DATE_TIME;
+				}
+				break;
+			default:
+				break;
+		}
+		return Conversion.STRING;
+	}
+
+	private enum Conversion {
+		STRING, DECIMAL, PERCENT, ON_OFF, OPEN_CLOSED, DATE_TIME
+	}
+
+	private static final class Column {
+		final int type;
+		final Conversion conversion;
+
+		Column(int type, Conversion conversion) {
+			this.type = type;
+			this.conversion = conversion;
+		}
+	}
+}
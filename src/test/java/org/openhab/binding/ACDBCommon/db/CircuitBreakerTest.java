@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>
+ * Tests of the state transitions of the circuit breaker
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class CircuitBreakerTest {
+	private CircuitBreaker breaker;
+
+	@Before
+	public void setUp() {
+		breaker = new CircuitBreaker("breaker");
+		breaker.setFailureThreshold(3);
+		breaker.setOpenDuration(200);
+		breaker.setMaxOpenDuration(600);
+	}
+
+	@Test
+	public void opensAfterThresholdFailuresInARow() throws Exception {
+		breaker.recordFailure();
+		breaker.recordFailure();
+		assertFalse(breaker.acquire());
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+		breaker.recordFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertTrue(breaker.isOpen());
+		assertEquals(1, breaker.getTrips());
+		assertRejected();
+	}
+
+	@Test
+	public void successResetsFailureCount() throws Exception {
+		breaker.recordFailure();
+		breaker.recordFailure();
+		breaker.recordSuccess();
+		breaker.recordFailure();
+		breaker.recordFailure();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	public void singleProbeAfterOpenDuration() throws Exception {
+		trip();
+		Thread.sleep(240);
+		assertFalse(breaker.isOpen());
+
+		assertTrue(breaker.acquire());
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		assertTrue(breaker.isOpen());
+		assertRejected();
+	}
+
+	@Test
+	public void successfulProbeCloses() throws Exception {
+		trip();
+		Thread.sleep(240);
+		assertTrue(breaker.acquire());
+		breaker.recordSuccess();
+
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertFalse(breaker.isOpen());
+		assertFalse(breaker.acquire());
+	}
+
+	@Test
+	public void failedProbeDoublesBackoffUpToMax() throws Exception {
+		trip();
+		Thread.sleep(240);
+		assertTrue(breaker.acquire());
+		breaker.recordFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertEquals(2, breaker.getTrips());
+
+		// open for 400ms now
+		Thread.sleep(240);
+		assertRejected();
+		Thread.sleep(240);
+		assertTrue(breaker.acquire());
+		breaker.recordFailure();
+
+		// capped at 600ms instead of 800ms
+		Thread.sleep(500);
+		assertRejected();
+		Thread.sleep(200);
+		assertTrue(breaker.acquire());
+	}
+
+	@Test
+	public void releasedProbeLetsNextRequestProbe() throws Exception {
+		trip();
+		Thread.sleep(240);
+		assertTrue(breaker.acquire());
+		breaker.releaseProbe();
+
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertEquals(1, breaker.getTrips());
+		assertTrue(breaker.acquire());
+	}
+
+	@Test
+	public void failedConnectsOfServerOpen() throws Exception {
+		ServerInfo server = server("jdbc:h2:mem:breakertest;NO_SUCH_SETTING=1");
+		try {
+			for (int i = 0; i < 3; i++) {
+				try {
+					server.getConnection();
+					fail("connected with an invalid URL");
+				} catch (SQLException e) {
+					// expected
+				}
+			}
+			assertEquals(CircuitBreaker.State.OPEN, server.getCircuitBreaker().getState());
+		} finally {
+			server.getPool().close();
+		}
+	}
+
+	@Test
+	public void exhaustedPoolIsNoServerFailure() throws Exception {
+		ServerInfo server = server("jdbc:h2:mem:breakertest");
+		PooledConnection held = server.getConnection();
+		try {
+			for (int i = 0; i < 3; i++) {
+				try {
+					server.getConnection();
+					fail("borrowed more connections than maxSize");
+				} catch (SQLException e) {
+					// expected
+				}
+			}
+			assertEquals(CircuitBreaker.State.CLOSED, server.getCircuitBreaker().getState());
+		} finally {
+			held.close();
+			server.getPool().close();
+		}
+	}
+
+	private static ServerInfo server(String url) {
+		ServerInfo server = new ServerInfo("breaker");
+		server.setDriverClassName("org.h2.Driver");
+		server.setUrl(url);
+		server.getPool().setMaxSize(1);
+		server.getPool().setBorrowTimeout(50);
+		server.getPool().start(false);
+		return server;
+	}
+
+	private void trip() {
+		for (int i = 0; i < breaker.getFailureThreshold(); i++) {
+			breaker.recordFailure();
+		}
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	private void assertRejected() throws Exception {
+		try {
+			breaker.acquire();
+			fail("request passed an open circuit");
+		} catch (SQLTransientConnectionException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>
+ * Tests of the connection pool against an embedded H2 database
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class ConnectionPoolTest {
+	private ServerInfo server;
+	private ConnectionPool pool;
+
+	@Before
+	public void setUp() {
+		server = new ServerInfo("pool");
+		server.setDriverClassName("org.h2.Driver");
+		server.setUrl("jdbc:h2:mem:pooltest");
+		pool = server.getPool();
+		pool.setMaxSize(1);
+		pool.setBorrowTimeout(200);
+		pool.start(false);
+	}
+
+	@After
+	public void tearDown() {
+		pool.close();
+	}
+
+	@Test
+	public void borrowTimesOutWhenExhausted() throws SQLException {
+		PooledConnection held = pool.borrow();
+		long start = System.nanoTime();
+		try {
+			pool.borrow();
+			fail("borrowed more connections than maxSize");
+		} catch (SQLException e) {
+			assertTrue(e.getMessage().startsWith("timeout waiting for connection"));
+		} finally {
+			held.close();
+		}
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+		assertEquals(1, pool.getTotal());
+	}
+
+	@Test
+	public void waitingBorrowGetsReleasedConnection() throws Exception {
+		pool.setBorrowTimeout(TimeUnit.SECONDS.toMillis(5));
+		final PooledConnection held = pool.borrow();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<PooledConnection> waiting = executor.submit(new Callable<PooledConnection>() {
+				@Override
+				public PooledConnection call() throws Exception {
+					return pool.borrow();
+				}
+			});
+			Thread.sleep(100);
+			assertTrue(!waiting.isDone());
+			held.close();
+			PooledConnection conn = waiting.get(1, TimeUnit.SECONDS);
+			assertSame(held, conn);
+			conn.close();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void expiredIdleConnectionIsReplacedOnBorrow() throws Exception {
+		pool.setMaxLifetime(100);
+		PooledConnection first = pool.borrow();
+		first.close();
+		assertEquals(1, pool.getIdle());
+		Thread.sleep(150);
+
+		PooledConnection second = pool.borrow();
+		try {
+			assertNotSame(first, second);
+			assertTrue(first.getConnection().isClosed());
+			assertEquals(1, pool.getTotal());
+		} finally {
+			second.close();
+		}
+	}
+
+	@Test
+	public void expiredConnectionIsClosedOnRelease() throws Exception {
+		pool.setMaxLifetime(100);
+		PooledConnection conn = pool.borrow();
+		Connection connection = conn.getConnection();
+		Thread.sleep(150);
+		conn.close();
+
+		assertTrue(connection.isClosed());
+		assertEquals(0, pool.getIdle());
+		assertEquals(0, pool.getTotal());
+	}
+
+	@Test
+	public void failedConnectFreesItsSlot() throws SQLException {
+		server.setUrl("jdbc:h2:mem:pooltest;NO_SUCH_SETTING=1");
+		try {
+			pool.borrow();
+			fail("connected with an invalid URL");
+		} catch (SQLException e) {
+			// expected
+		}
+		assertEquals(0, pool.getTotal());
+
+		server.setUrl("jdbc:h2:mem:pooltest");
+		pool.borrow().close();
+		assertEquals(1, pool.getTotal());
+	}
+}
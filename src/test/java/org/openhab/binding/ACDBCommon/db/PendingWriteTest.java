@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * <p>
+ * Tests of binding write values by their type and of parameter list commands
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class PendingWriteTest {
+
+	@Test
+	public void stringIsWrittenUnchanged() throws Exception {
+		assertEquals("setString 1 007", bind(DBManager.ValueType.STRING, "007"));
+		assertEquals("setString 1 1e3", bind(DBManager.ValueType.STRING, "1e3"));
+	}
+
+	@Test
+	public void numberIsBoundAsDecimal() throws Exception {
+		assertEquals("setBigDecimal 1 23.5", bind(DBManager.ValueType.NUMBER, "23.5"));
+		assertEquals("setBigDecimal 1 -1", bind(DBManager.ValueType.NUMBER, "-1"));
+		assertEquals("setString 1 NaN", bind(DBManager.ValueType.NUMBER, "NaN"));
+		assertEquals("setString 1 12a", bind(DBManager.ValueType.NUMBER, "12a"));
+	}
+
+	@Test
+	public void timestampIsBoundAsTimestamp() throws Exception {
+		assertEquals("setTimestamp 1 " + Timestamp.valueOf("2016-01-02 03:04:05"),
+			bind(DBManager.ValueType.TIMESTAMP, "2016-01-02T03:04:05"));
+		assertEquals("setString 1 2016-01-02", bind(DBManager.ValueType.TIMESTAMP, "2016-01-02"));
+	}
+
+	@Test
+	public void nullIsBoundAsNull() throws Exception {
+		assertEquals("setNull 1 12", bind(DBManager.ValueType.NUMBER, null));
+	}
+
+	@Test
+	public void insertBindsTimeAsText() throws Exception {
+		QueryTemplate query = QueryTemplate.compile("INSERT INTO log (value, time) VALUES (?, ?)");
+		PendingWrite write = DBManager.insert(query, DBManager.parseParameters("time=20160102&value=23.5"),
+			DBManager.ValueType.NUMBER);
+
+		assertArrayEquals(new String[] { "23.5", "20160102" }, write.parameters);
+		List<String> calls = new ArrayList<>();
+		write.bind(statement(calls));
+		assertEquals("setBigDecimal 1 23.5", calls.get(0));
+		assertEquals("setString 2 20160102", calls.get(1));
+	}
+
+	@Test
+	public void updateBindsValueToEverySlot() throws Exception {
+		QueryTemplate query = QueryTemplate.compile("UPDATE t SET a = ?, b = ? WHERE note = '?'");
+		PendingWrite write = DBManager.update(query, DBManager.parseParameters("time=1&value=2"),
+			DBManager.ValueType.STRING);
+
+		assertArrayEquals(new String[] { "2", "2" }, write.parameters);
+	}
+
+	@Test
+	public void parameterList() {
+		assertTrue(DBManager.isParameterList("time=1&value=2"));
+		assertFalse(DBManager.isParameterList("a=b"));
+		assertFalse(DBManager.isParameterList("a&b"));
+		assertFalse(DBManager.isParameterList("a=1&b"));
+
+		Map<String, String> parameters = DBManager.parseParameters("time=1&value=a=b&flag&&empty=");
+		assertEquals("1", parameters.get("time"));
+		assertEquals("a=b", parameters.get("value"));
+		assertEquals("", parameters.get("flag"));
+		assertEquals("", parameters.get("empty"));
+		assertEquals(4, parameters.size());
+	}
+
+	private static String bind(DBManager.ValueType type, String value) throws Exception {
+		List<String> calls = new ArrayList<>();
+		new PendingWrite("UPDATE t SET v = ?", type, value).bind(statement(calls));
+		assertEquals(1, calls.size());
+		return calls.get(0);
+	}
+
+	/**
+	 * @param calls receives "method index value" of every set call
+	 * @return statement recording its set calls
+	 */
+	private static PreparedStatement statement(final List<String> calls) {
+		return (PreparedStatement) Proxy.newProxyInstance(PendingWriteTest.class.getClassLoader(),
+			new Class<?>[] { PreparedStatement.class }, new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) {
+					if (method.getName().startsWith("set")) {
+						Object value = args[1] instanceof BigDecimal ? ((BigDecimal) args[1]).toPlainString()
+							: args[1];
+						calls.add(method.getName() + " " + args[0] + " " + value);
+					}
+					return null;
+				}
+			});
+	}
+}
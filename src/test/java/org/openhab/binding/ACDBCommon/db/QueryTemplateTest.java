@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * <p>
+ * Tests of parsing the SQL of a binding configuration
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class QueryTemplateTest {
+
+	@Test
+	public void blankSqlIsNotCompiled() {
+		assertNull(QueryTemplate.compile(null));
+		assertNull(QueryTemplate.compile(""));
+		assertNull(QueryTemplate.compile("  "));
+	}
+
+	@Test
+	public void serverIdPrefix() {
+		QueryTemplate query = QueryTemplate.compile("db1:SELECT value FROM t WHERE id = ?", 500);
+		assertEquals("db1", query.getServerId());
+		assertEquals("SELECT value FROM t WHERE id = ?", query.getSql());
+		assertEquals("db1:SELECT value FROM t WHERE id = ?", query.getSource());
+		assertEquals(500, query.getQueryTimeout());
+		assertEquals(1, query.getSlotCount());
+	}
+
+	@Test
+	public void defaultServerWithoutPrefix() {
+		QueryTemplate query = QueryTemplate.compile("SELECT value FROM t");
+		assertEquals(DBManager.DEFAULT_SERVER_ID, query.getServerId());
+		assertEquals("SELECT value FROM t", query.getSql());
+		assertEquals(0, query.getQueryTimeout());
+		assertEquals(0, query.getSlotCount());
+	}
+
+	@Test
+	public void colonInLiteralIsNoServerId() {
+		QueryTemplate query = QueryTemplate.compile("SELECT value FROM t WHERE at = '10:00'");
+		assertEquals(DBManager.DEFAULT_SERVER_ID, query.getServerId());
+		assertEquals("SELECT value FROM t WHERE at = '10:00'", query.getSql());
+
+		query = QueryTemplate.compile("db1:SELECT value FROM t WHERE at = '10:00'");
+		assertEquals("db1", query.getServerId());
+		assertEquals("SELECT value FROM t WHERE at = '10:00'", query.getSql());
+	}
+
+	@Test
+	public void questionMarkInLiteralIsNoSlot() {
+		assertEquals(2, QueryTemplate.compile("UPDATE t SET v = ?, note = 'why?' WHERE id = ?").getSlotCount());
+		assertEquals(1, QueryTemplate.compile("SELECT \"a?b\" FROM t WHERE id = ?").getSlotCount());
+		assertEquals(0, QueryTemplate.compile("SELECT '?', \"?\" FROM t").getSlotCount());
+	}
+
+	@Test
+	public void escapedQuoteKeepsLiteralOpen() {
+		assertEquals(1, QueryTemplate.compile("UPDATE t SET note = 'it''s ?' WHERE id = ?").getSlotCount());
+	}
+
+	@Test
+	public void mixedQuotes() {
+		assertEquals(1, QueryTemplate.compile("SELECT 'say \"?\"' FROM t WHERE id = ?").getSlotCount());
+		assertEquals(1, QueryTemplate.compile("SELECT \"it's ?\" FROM t WHERE id = ?").getSlotCount());
+	}
+}
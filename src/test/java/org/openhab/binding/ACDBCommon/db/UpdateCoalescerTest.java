@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>
+ * Tests of coalescing updates against an embedded H2 database
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class UpdateCoalescerTest {
+	private static final QueryTemplate UPDATE = QueryTemplate.compile("UPDATE item SET v = ? WHERE id = 1");
+
+	private ServerInfo server;
+	private UpdateCoalescer coalescer;
+	private Connection keeper;
+
+	@Before
+	public void setUp() throws Exception {
+		server = new ServerInfo("coalescer");
+		server.setDriverClassName("org.h2.Driver");
+		server.setUrl("jdbc:h2:mem:coalescertest");
+		// keeps the in-memory database between the connections of the pool
+		keeper = server.openConnection();
+		try (Statement stmt = keeper.createStatement()) {
+			stmt.execute("CREATE TABLE item (id INT PRIMARY KEY, v VARCHAR(20))");
+			stmt.execute("INSERT INTO item VALUES (1, 'initial')");
+		}
+		server.getPool().start(false);
+		coalescer = server.getCoalescer();
+		coalescer.setWindow(100);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		server.getPool().close();
+		try (Statement stmt = keeper.createStatement()) {
+			stmt.execute("DROP TABLE item");
+		}
+		keeper.close();
+	}
+
+	@Test
+	public void latestValueOfWindowIsWritten() throws Exception {
+		coalescer.put(UPDATE, update("1"));
+		coalescer.put(UPDATE, update("2"));
+		coalescer.put(UPDATE, update("3"));
+		assertEquals(1, coalescer.getPendingCount());
+		assertEquals("initial", value());
+
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+		while (coalescer.getWrittenCount() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(1, coalescer.getWrittenCount());
+		assertEquals(2, coalescer.getCoalescedCount());
+		assertEquals(0, coalescer.getPendingCount());
+		assertEquals("3", value());
+	}
+
+	@Test
+	public void flushWritesPendingValueAtOnce() throws Exception {
+		coalescer.setWindow(TimeUnit.MINUTES.toMillis(1));
+		coalescer.put(UPDATE, update("now"));
+
+		assertTrue(coalescer.flush(UPDATE));
+		assertEquals("now", value());
+		assertFalse(coalescer.flush(UPDATE));
+		assertEquals(1, coalescer.getWrittenCount());
+	}
+
+	@Test
+	public void valueAfterFlushStartsNewWindow() throws Exception {
+		coalescer.setWindow(TimeUnit.MINUTES.toMillis(1));
+		coalescer.put(UPDATE, update("first"));
+		coalescer.flushAll();
+		coalescer.put(UPDATE, update("second"));
+
+		assertEquals(0, coalescer.getCoalescedCount());
+		assertEquals(1, coalescer.getPendingCount());
+		coalescer.flushAll();
+		assertEquals("second", value());
+	}
+
+	private static PendingWrite update(String value) {
+		return new PendingWrite(UPDATE.getSql(), DBManager.ValueType.STRING, value);
+	}
+
+	private String value() throws Exception {
+		try (Statement stmt = keeper.createStatement(); ResultSet rs = stmt.executeQuery("SELECT v FROM item")) {
+			rs.next();
+			return rs.getString(1);
+		}
+	}
+}
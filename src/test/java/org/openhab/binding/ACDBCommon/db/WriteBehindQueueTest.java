@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>
+ * Tests of the write-behind queue against an embedded H2 database
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class WriteBehindQueueTest {
+	private static final String INSERT = "INSERT INTO log (id) VALUES (?)";
+
+	private ServerInfo server;
+	private WriteBehindQueue queue;
+	private Connection keeper;
+
+	@Before
+	public void setUp() throws Exception {
+		server = new ServerInfo("writebehind");
+		server.setDriverClassName("org.h2.Driver");
+		server.setUrl("jdbc:h2:mem:writebehindtest");
+		// keeps the in-memory database between the connections of the pool
+		keeper = server.openConnection();
+		try (Statement stmt = keeper.createStatement()) {
+			stmt.execute("CREATE TABLE log (id INT PRIMARY KEY)");
+		}
+		server.getPool().start(false);
+		queue = server.getWriteBehind();
+		queue.setEnabled(true);
+		queue.setBatchSize(10);
+		queue.setFlushInterval(50);
+		queue.start();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		queue.close();
+		server.getPool().close();
+		try (Statement stmt = keeper.createStatement()) {
+			stmt.execute("DROP TABLE log");
+		}
+		keeper.close();
+	}
+
+	@Test
+	public void insertsAreFlushed() throws Exception {
+		for (int i = 0; i < 25; i++) {
+			assertTrue(queue.offer(insert(i)));
+		}
+		awaitFlushed(25);
+		assertEquals(25, queue.getWrittenCount());
+		assertEquals(0, queue.getFailedCount());
+		assertEquals(25, countRows());
+	}
+
+	@Test
+	public void failedBatchIsRolledBackAndNotRepeated() throws Exception {
+		assertTrue(queue.offer(insert(1)));
+		assertTrue(queue.offer(insert(2)));
+		assertTrue(queue.offer(insert(1)));
+		awaitFlushed(3);
+		assertEquals(3, queue.getFailedCount());
+		assertEquals(0, countRows());
+
+		// the cached statement must not carry the failed batch into the next flush
+		assertTrue(queue.offer(insert(3)));
+		awaitFlushed(4);
+		assertEquals(1, queue.getWrittenCount());
+		assertEquals(1, countRows());
+	}
+
+	@Test
+	public void closeWritesQueuedInserts() throws Exception {
+		queue.close();
+		queue.setFlushInterval(TimeUnit.SECONDS.toMillis(1));
+		queue.start();
+		for (int i = 0; i < 5; i++) {
+			assertTrue(queue.offer(insert(i)));
+		}
+		queue.close();
+		assertEquals(5, queue.getWrittenCount());
+		assertEquals(5, countRows());
+		assertFalse(queue.offer(insert(5)));
+	}
+
+	private static PendingWrite insert(int id) {
+		return new PendingWrite(INSERT, DBManager.ValueType.NUMBER, String.valueOf(id));
+	}
+
+	private void awaitFlushed(long count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+		while (queue.getWrittenCount() + queue.getFailedCount() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	private int countRows() throws Exception {
+		try (Statement stmt = keeper.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM log")) {
+			rs.next();
+			return rs.getInt(1);
+		}
+	}
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+import org.openhab.binding.ACDBCommon.db.PlatformExecutionStrategy;
+
+/**
+ * <p>
+ * Tests of the per item order and the overflow of the command lanes
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class CommandDispatcherTest {
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final CountDownLatch gate = new CountDownLatch(1);
+	private CommandDispatcher dispatcher;
+
+	@After
+	public void tearDown() {
+		gate.countDown();
+		if (dispatcher != null) {
+			dispatcher.close();
+		}
+	}
+
+	@Test
+	public void workOfAnItemKeepsItsOrder() {
+		dispatcher = dispatcher(4, 1000, CommandDispatcher.OverflowPolicy.BLOCK);
+		String[] itemNames = { "a", "b", "c" };
+		Map<String, List<Integer>> handled = new HashMap<>();
+		for (String itemName : itemNames) {
+			handled.put(itemName, Collections.synchronizedList(new ArrayList<Integer>()));
+		}
+		for (int i = 0; i < 300; i++) {
+			String itemName = itemNames[i % itemNames.length];
+			final List<Integer> list = handled.get(itemName);
+			final int n = i / itemNames.length;
+			dispatcher.dispatch(itemName, new Runnable() {
+				@Override
+				public void run() {
+					list.add(n);
+				}
+			});
+		}
+		dispatcher.close();
+
+		for (List<Integer> list : handled.values()) {
+			assertEquals(100, list.size());
+			for (int n = 0; n < 100; n++) {
+				assertEquals(Integer.valueOf(n), list.get(n));
+			}
+		}
+		assertEquals(300, dispatcher.getCompletedCount());
+	}
+
+	@Test
+	public void fullLaneDropsWork() throws Exception {
+		dispatcher = dispatcher(1, 1, CommandDispatcher.OverflowPolicy.DROP);
+		occupyLane();
+
+		dispatcher.dispatch("a", noop());
+		dispatcher.dispatch("a", noop());
+		dispatcher.dispatch("b", noop());
+
+		assertEquals(2, dispatcher.getDroppedCount());
+		assertEquals(1, dispatcher.getDepth());
+		assertEquals(1, dispatcher.getMaxDepth());
+		gate.countDown();
+		dispatcher.close();
+		assertEquals(2, dispatcher.getCompletedCount());
+	}
+
+	@Test
+	public void fullLaneRunsWorkOnCaller() throws Exception {
+		dispatcher = dispatcher(1, 1, CommandDispatcher.OverflowPolicy.SYNC);
+		occupyLane();
+		dispatcher.dispatch("a", noop());
+
+		final AtomicReference<Thread> runner = new AtomicReference<>();
+		dispatcher.dispatch("a", new Runnable() {
+			@Override
+			public void run() {
+				runner.set(Thread.currentThread());
+			}
+		});
+
+		assertSame(Thread.currentThread(), runner.get());
+		assertEquals(1, dispatcher.getRanOnCallerCount());
+		assertEquals(0, dispatcher.getDroppedCount());
+	}
+
+	@Test
+	public void closeWaitsForQueuedWork() throws Exception {
+		dispatcher = dispatcher(1, 10, CommandDispatcher.OverflowPolicy.DROP);
+		occupyLane();
+		for (int i = 0; i < 5; i++) {
+			dispatcher.dispatch("a", noop());
+		}
+		new Thread() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(50);
+				} catch (InterruptedException e) {
+					// open the gate anyway
+				}
+				gate.countDown();
+			}
+		}.start();
+
+		dispatcher.close();
+		assertEquals(6, dispatcher.getCompletedCount());
+		assertEquals(0, dispatcher.getDepth());
+
+		// work after close runs on the caller
+		dispatcher.dispatch("a", noop());
+		assertEquals(1, dispatcher.getRanOnCallerCount());
+	}
+
+	private static CommandDispatcher dispatcher(int lanes, int queueSize, CommandDispatcher.OverflowPolicy policy) {
+		return new CommandDispatcher("test", lanes, queueSize, policy, new PlatformExecutionStrategy());
+	}
+
+	/**
+	 * keep the worker of the first lane busy until the gate opens
+	 */
+	private void occupyLane() throws InterruptedException {
+		dispatcher.dispatch("busy", new Runnable() {
+			@Override
+			public void run() {
+				started.countDown();
+				try {
+					gate.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+	}
+
+	private static Runnable noop() {
+		return new Runnable() {
+			@Override
+			public void run() {
+			}
+		};
+	}
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * <p>
+ * Tests of keeping poll results from overwriting newer command values
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class ItemStateCacheTest {
+	private final ItemStateCache cache = new ItemStateCache();
+
+	@Test
+	public void firstValueIsChanged() {
+		assertEquals(ItemStateCache.Result.CHANGED, cache.compareAndSet("a", "1", cache.stamp()));
+		assertEquals("1", cache.get("a"));
+		assertTrue(cache.isUnchanged("a", "1"));
+		assertFalse(cache.isUnchanged("b", null));
+	}
+
+	@Test
+	public void knownValueIsUnchanged() {
+		cache.compareAndSet("a", "1", cache.stamp());
+
+		assertEquals(ItemStateCache.Result.UNCHANGED, cache.compareAndSet("a", "1", cache.stamp()));
+		assertEquals(ItemStateCache.Result.CHANGED, cache.compareAndSet("a", "2", cache.stamp()));
+		assertEquals(ItemStateCache.Result.CHANGED, cache.compareAndSet("a", null, cache.stamp()));
+		assertEquals(ItemStateCache.Result.UNCHANGED, cache.compareAndSet("a", null, cache.stamp()));
+	}
+
+	@Test
+	public void commandAfterStampMakesReadStale() {
+		cache.compareAndSet("a", "1", cache.stamp());
+		long stamp = cache.stamp();
+		// the command arrives while the poll is reading the database
+		assertEquals("1", cache.put("a", "on"));
+
+		assertEquals(ItemStateCache.Result.STALE, cache.compareAndSet("a", "off", stamp));
+		assertEquals("on", cache.get("a"));
+		assertEquals(ItemStateCache.Result.CHANGED, cache.compareAndSet("a", "off", cache.stamp()));
+	}
+
+	@Test
+	public void writeOfOtherItemDoesNotMakeReadStale() {
+		long stamp = cache.stamp();
+		cache.put("b", "on");
+
+		assertEquals(ItemStateCache.Result.CHANGED, cache.compareAndSet("a", "1", stamp));
+	}
+
+	@Test
+	public void removedItemIsUnknown() {
+		cache.put("a", "on");
+		cache.remove("a");
+
+		assertNull(cache.get("a"));
+		assertFalse(cache.isUnchanged("a", "on"));
+	}
+
+	@Test
+	public void concurrentReadsStoreOneValueEach() throws Exception {
+		final int threads = 4;
+		final long stamp = cache.stamp();
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicInteger changed = new AtomicInteger();
+		Thread[] workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int n = 0; n < 1000; n++) {
+						if (cache.compareAndSet("a", "same", stamp) == ItemStateCache.Result.CHANGED) {
+							changed.incrementAndGet();
+						}
+					}
+				}
+			};
+			workers[i].start();
+		}
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+
+		// only the first store changes the item, every later one sees the value or a newer version
+		assertEquals(1, changed.get());
+		assertEquals("same", cache.get("a"));
+	}
+}
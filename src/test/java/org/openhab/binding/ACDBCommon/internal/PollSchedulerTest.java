@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.openhab.binding.ACDBCommon.ACDBBindingProvider;
+
+/**
+ * <p>
+ * Tests of the timing wheel deciding which items are polled
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class PollSchedulerTest {
+	private final ACDBBindingProvider provider = provider();
+	private final ACDBBindingProvider other = provider();
+
+	@Test
+	public void itemIsDueEveryInterval() {
+		PollScheduler scheduler = new PollScheduler(100, 8, 0);
+		scheduler.schedule("a", provider, 300, 300, 0);
+
+		assertTrue(scheduler.advance(200).isEmpty());
+		assertEquals(1, scheduler.advance(300).size());
+		assertTrue(scheduler.advance(500).isEmpty());
+		assertEquals(1, scheduler.advance(600).size());
+	}
+
+	@Test
+	public void laterRevolutionsStayInTheirBucket() {
+		PollScheduler scheduler = new PollScheduler(100, 4, 0);
+		scheduler.schedule("a", provider, 1000, 1000, 0);
+
+		for (long now = 100; now < 1000; now += 100) {
+			assertTrue("due at " + now, scheduler.advance(now).isEmpty());
+		}
+		assertEquals(1, scheduler.advance(1000).size());
+	}
+
+	@Test
+	public void skippedTicksAreCaughtUp() {
+		PollScheduler scheduler = new PollScheduler(100, 8, 0);
+		scheduler.schedule("a", provider, 1000, 200, 0);
+		scheduler.schedule("b", provider, 1000, 500, 0);
+
+		assertEquals(2, scheduler.advance(700).size());
+	}
+
+	@Test
+	public void deadlineBetweenTicksIsDueAtTheNextTick() {
+		PollScheduler scheduler = new PollScheduler(100, 4, 0);
+		scheduler.schedule("a", provider, 1000, 250, 0);
+
+		assertTrue(scheduler.advance(200).isEmpty());
+		assertEquals(1, scheduler.advance(300).size());
+		// next deadline 1300, at the same position of the wheel
+		assertTrue(scheduler.advance(1200).isEmpty());
+		assertEquals(1, scheduler.advance(1300).size());
+	}
+
+	@Test
+	public void staggeredItemsAreSpreadOverTheInterval() {
+		PollScheduler scheduler = new PollScheduler(100, 16, 0);
+		for (int i = 0; i < 100; i++) {
+			scheduler.scheduleStaggered("item" + i, provider, 1000, 0);
+		}
+		int total = 0;
+		int busiest = 0;
+		for (long now = 100; now <= 1000; now += 100) {
+			int due = scheduler.advance(now).size();
+			total += due;
+			busiest = Math.max(busiest, due);
+		}
+		assertEquals(100, total);
+		assertTrue("busiest tick polled " + busiest + " items", busiest <= 20);
+	}
+
+	@Test
+	public void removedItemIsNotPolled() {
+		PollScheduler scheduler = new PollScheduler(100, 8, 0);
+		scheduler.schedule("a", provider, 300, 300, 0);
+
+		assertTrue(scheduler.remove("a", provider));
+		assertFalse(scheduler.remove("a", provider));
+		assertTrue(scheduler.advance(300).isEmpty());
+		assertEquals(0, scheduler.getInterval("a"));
+	}
+
+	@Test
+	public void rescheduleMovesNextPoll() {
+		PollScheduler scheduler = new PollScheduler(100, 8, 0);
+		scheduler.schedule("a", provider, 1000, 1000, 0);
+
+		scheduler.reschedule("a", 0, 0);
+		assertEquals(1, scheduler.advance(100).size());
+		assertTrue(scheduler.advance(200).isEmpty());
+	}
+
+	@Test
+	public void itemOfTwoProvidersIsPolledForEach() {
+		PollScheduler scheduler = new PollScheduler(100, 8, 0);
+		scheduler.schedule("a", provider, 300, 300, 0);
+		scheduler.schedule("a", other, 500, 500, 0);
+
+		List<PollScheduler.Entry> due = scheduler.advance(300);
+		assertEquals(1, due.size());
+		assertSame(provider, due.get(0).provider);
+		due = scheduler.advance(500);
+		assertEquals(1, due.size());
+		assertSame(other, due.get(0).provider);
+
+		assertEquals(300, scheduler.getInterval("a"));
+		assertEquals(500, scheduler.getInterval("a", other));
+		assertEquals(2, scheduler.getEntries().size());
+
+		scheduler.remove("a", provider);
+		assertEquals(500, scheduler.getInterval("a"));
+	}
+
+	@Test
+	public void effectiveIntervalKeepsConfiguredMinimum() {
+		PollScheduler scheduler = new PollScheduler(100, 8, 0);
+		scheduler.schedule("a", provider, 300, 300, 0);
+		scheduler.schedule("a", other, 500, 500, 0);
+
+		scheduler.setEffectiveInterval("a", 400, 0);
+		assertEquals(400, scheduler.getEffectiveInterval("a"));
+		Map<ACDBBindingProvider, Long> intervals = new HashMap<>();
+		for (PollScheduler.Entry entry : scheduler.getEntries()) {
+			intervals.put(entry.provider, entry.effectiveInterval);
+		}
+		assertEquals(Long.valueOf(400), intervals.get(provider));
+		assertEquals(Long.valueOf(500), intervals.get(other));
+
+		// the next poll is one effective interval later
+		assertTrue(scheduler.advance(300).isEmpty());
+		assertEquals(1, scheduler.advance(400).size());
+	}
+
+	private static ACDBBindingProvider provider() {
+		return (ACDBBindingProvider) Proxy.newProxyInstance(PollSchedulerTest.class.getClassLoader(),
+			new Class<?>[] { ACDBBindingProvider.class }, new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) {
+					if ("hashCode".equals(method.getName())) {
+						return System.identityHashCode(proxy);
+					}
+					if ("equals".equals(method.getName())) {
+						return proxy == args[0];
+					}
+					throw new UnsupportedOperationException(method.getName());
+				}
+			});
+	}
+}
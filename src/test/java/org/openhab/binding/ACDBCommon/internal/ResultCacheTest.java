@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.openhab.binding.ACDBCommon.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.openhab.binding.ACDBCommon.db.ServerInfo;
+import org.openhab.core.library.types.StringType;
+
+/**
+ * <p>
+ * Tests of invalidating selected results by writes
+ * </p>
+ *
+ * @author Kazuhiro Matsuda
+ * @since 1.8.0
+ */
+public class ResultCacheTest {
+	private static final String SELECT = "SELECT value FROM sensor WHERE id = 1";
+
+	private final ResultCache cache = new ResultCache(10);
+	private final ServerInfo server = new ServerInfo("cache");
+
+	@Test
+	public void writeDropsResultsOfItsTable() {
+		cache.put(server, SELECT, new StringType("1"), cache.version());
+		cache.put(server, "SELECT value FROM other", new StringType("2"), cache.version());
+
+		cache.invalidate(server, "UPDATE sensor SET value = ? WHERE id = 1");
+
+		assertNull(cache.get(server, SELECT, 60000));
+		assertNotNull(cache.get(server, "SELECT value FROM other", 60000));
+	}
+
+	@Test
+	public void writeToUnknownTableDropsAllResultsOfServer() {
+		ServerInfo other = new ServerInfo("other");
+		cache.put(server, SELECT, new StringType("1"), cache.version());
+		cache.put(other, SELECT, new StringType("1"), cache.version());
+
+		cache.invalidate(server, "CALL store(?)");
+
+		assertNull(cache.get(server, SELECT, 60000));
+		assertNotNull(cache.get(other, SELECT, 60000));
+	}
+
+	@Test
+	public void resultSelectedBeforeWriteIsNotStored() {
+		long version = cache.version();
+		// the write commits while the select is running
+		cache.invalidate(server, "UPDATE sensor SET value = ? WHERE id = 1");
+		cache.put(server, SELECT, new StringType("stale"), version);
+
+		assertNull(cache.get(server, SELECT, 60000));
+	}
+
+	@Test
+	public void resultExpiresAfterTtl() throws InterruptedException {
+		cache.put(server, SELECT, new StringType("1"), cache.version());
+		Thread.sleep(60);
+
+		assertNull(cache.get(server, SELECT, 50));
+		assertEquals(1, cache.getMisses());
+	}
+}